@@ -0,0 +1,97 @@
+package benchmark;
+
+import chess.*;
+import chess.rules.Bitboards;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation and game-state benchmarks for the rules engine.
+ * <p>
+ * Build with {@code mvn -pl benchmarks -am package -DskipTests}, then run
+ * {@code java -jar benchmarks/target/benchmarks-jar-with-dependencies.jar}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+
+  @Param({"START", "MIDDLEGAME", "ENDGAME"})
+  public String position;
+
+  private ChessGame game;
+
+  /**
+   * A game at the start position plus a four-ply knight shuffle that returns to it.
+   */
+  @State(Scope.Thread)
+  public static class StartPosition {
+    ChessGame game;
+    ChessBoard board;
+    ChessMove[] cycle;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+      game = new ChessGame();
+      board = new ChessBoard();
+      cycle = new ChessMove[]{
+              ChessMove.of(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null),
+              ChessMove.of(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null),
+              ChessMove.of(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null),
+              ChessMove.of(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null),
+      };
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setUp() throws ReflectiveOperationException {
+    game = Positions.load((String) Positions.class.getField(position).get(null));
+  }
+
+  @Benchmark
+  public void validMovesForSideToMove(Blackhole blackhole) {
+    long pieces = game.getBoard().occupancy(game.getTeamTurn());
+    while (pieces != 0) {
+      int square = Long.numberOfTrailingZeros(pieces);
+      blackhole.consume(game.validMoves(ChessPosition.of(Bitboards.row(square), Bitboards.column(square))));
+      pieces &= pieces - 1;
+    }
+  }
+
+  @Benchmark
+  public boolean isInCheckmate() {
+    // Re-setting the turn drops the memoized status so every call does the full evaluation.
+    game.setTeamTurn(game.getTeamTurn());
+    return game.isInCheckmate(game.getTeamTurn());
+  }
+
+  @Benchmark
+  public boolean isInCheck() {
+    return game.isInCheck(game.getTeamTurn());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(4)
+  public ChessGame makeMove(StartPosition start) throws InvalidMoveException {
+    for (ChessMove move : start.cycle) {
+      start.game.makeMove(move);
+    }
+    return start.game;
+  }
+
+  @Benchmark
+  public ChessBoard resetBoard(StartPosition start) {
+    start.board.resetBoard();
+    return start.board;
+  }
+
+  @Benchmark
+  public long perft3() {
+    return Perft.perft(game, 3);
+  }
+}
@@ -0,0 +1,85 @@
+package benchmark;
+
+import chess.*;
+import chess.rules.Bitboards;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth and checks them against
+ * published perft results. A mismatch means move generation or legality checking is wrong.
+ * <p>
+ * Run with {@code mvn -pl benchmarks exec:java}, optionally passing a maximum depth.
+ */
+public class Perft {
+
+  private record Case(String name, String fen, long[] expected) {}
+
+  // Only depths at which neither castling nor en passant is reachable, since the engine implements neither.
+  private static final Case[] CASES = {
+          new Case("start", Positions.START, new long[]{20, 400, 8902, 197281}),
+          new Case("endgame", Positions.ENDGAME, new long[]{14, 191}),
+          new Case("middlegame", Positions.MIDDLEGAME, new long[]{46, 2079}),
+          new Case("promotion", Positions.PROMOTION, new long[]{24, 496, 9483, 182838}),
+  };
+
+  public static void main(String[] args) {
+    int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+    boolean failed = false;
+
+    for (Case c : CASES) {
+      for (int depth = 1; depth <= Math.min(maxDepth, c.expected().length); depth++) {
+        ChessGame game = Positions.load(c.fen());
+        long start = System.nanoTime();
+        long nodes = perft(game, depth);
+        long elapsed = System.nanoTime() - start;
+
+        long expected = c.expected()[depth - 1];
+        boolean ok = nodes == expected;
+        failed |= !ok;
+        System.out.printf("%-10s depth %d: %,12d nodes %s %,10.1f ms (%,.0f nodes/s)%n",
+                c.name(), depth, nodes, ok ? "ok      " : "EXPECTED " + expected,
+                elapsed / 1e6, nodes / (elapsed / 1e9));
+      }
+    }
+
+    if (failed) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * @return number of legal move sequences of the given length from the game's current position
+   */
+  public static long perft(ChessGame game, int depth) {
+    ChessGame.TeamColor side = game.getTeamTurn();
+    ChessGame.TeamColor other = side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    ChessBoard board = game.getBoard();
+    long nodes = 0;
+
+    long pieces = board.occupancy(side);
+    while (pieces != 0) {
+      int square = Long.numberOfTrailingZeros(pieces);
+      pieces &= pieces - 1;
+      ChessPosition from = ChessPosition.of(Bitboards.row(square), Bitboards.column(square));
+      var moves = game.validMoves(from);
+      if (depth == 1) {
+        nodes += moves.size();
+        continue;
+      }
+
+      ChessPiece piece = board.getPiece(from);
+      for (ChessMove move : moves) {
+        ChessPiece captured = board.getPiece(move.getEndPosition());
+        ChessPiece placed = move.getPromotionPiece() == null ? piece : ChessPiece.of(side, move.getPromotionPiece());
+
+        board.addPiece(move.getEndPosition(), placed);
+        board.addPiece(from, null);
+        game.setTeamTurn(other);
+        nodes += perft(game, depth - 1);
+        board.addPiece(from, piece);
+        board.addPiece(move.getEndPosition(), captured);
+        game.setTeamTurn(side);
+      }
+    }
+    return nodes;
+  }
+}
@@ -0,0 +1,50 @@
+package benchmark;
+
+import chess.*;
+
+import java.util.Map;
+
+/**
+ * Standard test positions, loaded from the piece-placement and side-to-move fields of a FEN string.
+ * <p>
+ * The engine does not implement castling or en passant, so the castling and en-passant
+ * fields are ignored and only positions and depths where neither can occur are used.
+ */
+public class Positions {
+  public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+  public static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+  public static final String MIDDLEGAME = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+  public static final String PROMOTION = "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1";
+
+  private static final Map<Character, ChessPiece.PieceType> TYPES = Map.of(
+          'p', ChessPiece.PieceType.PAWN,
+          'n', ChessPiece.PieceType.KNIGHT,
+          'b', ChessPiece.PieceType.BISHOP,
+          'r', ChessPiece.PieceType.ROOK,
+          'q', ChessPiece.PieceType.QUEEN,
+          'k', ChessPiece.PieceType.KING);
+
+  public static ChessGame load(String fen) {
+    String[] fields = fen.split(" ");
+    ChessBoard board = new ChessBoard();
+    int row = 8;
+    int col = 1;
+    for (char c : fields[0].toCharArray()) {
+      if (c == '/') {
+        row--;
+        col = 1;
+      } else if (Character.isDigit(c)) {
+        col += c - '0';
+      } else {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, TYPES.get(Character.toLowerCase(c))));
+        col++;
+      }
+    }
+
+    ChessGame game = new ChessGame();
+    game.setBoard(board);
+    game.setTeamTurn(fields.length > 1 && fields[1].equals("b") ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+    return game;
+  }
+}
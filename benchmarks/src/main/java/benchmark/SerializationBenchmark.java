@@ -0,0 +1,74 @@
+package benchmark;
+
+import chess.*;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import websocket.messages.LoadGame;
+import websocket.messages.Notification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson cost of the game state as stored in the games table and as sent over the WebSocket.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({"1", "10", "100"})
+  public int sessions;
+
+  private final Gson gson = new Gson();
+  private ChessGame game;
+  private String gameJson;
+
+  @Setup
+  public void setUp() {
+    game = Positions.load(Positions.MIDDLEGAME);
+    gameJson = gson.toJson(game);
+  }
+
+  @Benchmark
+  public String toJson() {
+    return gson.toJson(game);
+  }
+
+  @Benchmark
+  public ChessGame fromJson() {
+    return gson.fromJson(gameJson, ChessGame.class);
+  }
+
+  @Benchmark
+  public ChessGame roundTrip() {
+    return gson.fromJson(gson.toJson(game), ChessGame.class);
+  }
+
+  /**
+   * Mirrors WebSocketHandler.sendGameUpdates: encode once, then hand the same frames to every session.
+   */
+  @Benchmark
+  public void broadcastEncodeOnce(Blackhole blackhole) {
+    String loadGame = gson.toJson(new LoadGame(game));
+    String notification = gson.toJson(new Notification("player moved from a2 to a3"));
+    for (int i = 0; i < sessions; i++) {
+      blackhole.consume(loadGame);
+      blackhole.consume(notification);
+    }
+  }
+
+  /**
+   * Mirrors a reconnect storm where every joining session gets its own LOAD_GAME encoding.
+   */
+  @Benchmark
+  public void broadcastEncodePerSession(Blackhole blackhole) {
+    for (int i = 0; i < sessions; i++) {
+      blackhole.consume(gson.toJson(new LoadGame(game)));
+      blackhole.consume(gson.toJson(new Notification("player joined as an observer")));
+    }
+  }
+}
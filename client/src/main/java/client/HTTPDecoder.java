@@ -63,23 +63,28 @@ public class HTTPDecoder {
   }
 
   public HashSet<GameData> listGames() {
-    Map resp = request("GET", "/game");
-    if (resp.containsKey("Error")) {
-      return new HashSet<>();
-    }
-
     var games = new HashSet<GameData>();
-    var gamesList = (java.util.ArrayList<?>) resp.get("games");
-
-    for (Object gameObj : gamesList) {
-      Map<?, ?> gameMap = (Map<?, ?>) gameObj;
-      games.add(new GameData(
-              ((Double) gameMap.get("gameID")).intValue(),
-              (String) gameMap.get("whiteUsername"),
-              (String) gameMap.get("blackUsername"),
-              (String) gameMap.get("gameName"),
-              new chess.ChessGame()
-      ));
+    String endpoint = "/game";
+    // The server returns a page at a time and a "next" cursor while more games remain.
+    while (endpoint != null) {
+      Map resp = request("GET", endpoint);
+      if (resp.containsKey("Error")) {
+        return new HashSet<>();
+      }
+
+      var gamesList = (java.util.ArrayList<?>) resp.get("games");
+      for (Object gameObj : gamesList) {
+        Map<?, ?> gameMap = (Map<?, ?>) gameObj;
+        games.add(new GameData(
+                ((Double) gameMap.get("gameID")).intValue(),
+                (String) gameMap.get("whiteUsername"),
+                (String) gameMap.get("blackUsername"),
+                (String) gameMap.get("gameName"),
+                new chess.ChessGame()
+        ));
+      }
+      Object next = resp.get("next");
+      endpoint = next == null ? null : "/game?after=" + ((Double) next).intValue();
     }
     return games;
   }
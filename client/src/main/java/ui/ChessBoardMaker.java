@@ -100,8 +100,8 @@ public class ChessBoardMaker {
 
   private static ChessPosition getPosition(int row, int col, boolean blackPerspective) {
     return blackPerspective ?
-            new ChessPosition(row, 9 - col) :
-            new ChessPosition(row, col);
+            ChessPosition.of(row, 9 - col) :
+            ChessPosition.of(row, col);
   }
 
   private static boolean isPositionHighlighted(ChessPosition position, Collection<ChessMove> highlights) {
@@ -6,5 +6,13 @@ public interface AuthDAO {
   void createAuth(AuthData auth) throws DataAccessException;
   AuthData getAuth(String authToken) throws DataAccessException;
   void deleteAuth(String authToken) throws DataAccessException;
+
+  /**
+   * @return a counter that changes whenever a token is deleted, or -1 if deletions are not tracked
+   */
+  default long deletionVersion() {
+    return -1;
+  }
+
   void clear() throws DataAccessException;
 }
\ No newline at end of file
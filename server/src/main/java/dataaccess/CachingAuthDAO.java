@@ -0,0 +1,130 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of auth tokens in front of another AuthDAO.
+ * <p>
+ * Found tokens are kept for the time-to-live, up to a fixed number of entries; unknown tokens
+ * are not cached, so a token created elsewhere is seen on its first use. deleteAuth removes the
+ * token from the cache before returning, and a lookup that raced with a delete does not put the
+ * deleted token back: the delete invalidates both before and after the delegate call, so a
+ * lookup that read the row while the delete was still in flight is discarded too.
+ */
+public class CachingAuthDAO implements AuthDAO {
+  public static final long DEFAULT_TTL_MILLIS = 60_000;
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  private record Entry(AuthData auth, long expiresAt) {}
+
+  private final AuthDAO delegate;
+  private final long ttlNanos;
+  private final int maxEntries;
+  private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+  // Bumped by every delete, so a lookup can tell that its database read may be stale.
+  private final AtomicLong invalidations = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public CachingAuthDAO(AuthDAO delegate) {
+    this(delegate, DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+  }
+
+  public CachingAuthDAO(AuthDAO delegate, long ttlMillis, int maxEntries) {
+    this.delegate = delegate;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    this.maxEntries = maxEntries;
+  }
+
+  @Override
+  public void createAuth(AuthData auth) throws DataAccessException {
+    delegate.createAuth(auth);
+    put(auth);
+  }
+
+  @Override
+  public AuthData getAuth(String authToken) throws DataAccessException {
+    Entry entry = cache.get(authToken);
+    if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+      hits.incrementAndGet();
+      return entry.auth();
+    }
+
+    misses.incrementAndGet();
+    long generation = invalidations.get();
+    AuthData auth = delegate.getAuth(authToken);
+    if (auth == null) {
+      cache.remove(authToken);
+    } else if (invalidations.get() == generation) {
+      put(auth);
+      // A delete may have slipped in between the check and the put.
+      if (invalidations.get() != generation) {
+        cache.remove(authToken);
+      }
+    }
+    return auth;
+  }
+
+  @Override
+  public void deleteAuth(String authToken) throws DataAccessException {
+    invalidations.incrementAndGet();
+    cache.remove(authToken);
+    try {
+      delegate.deleteAuth(authToken);
+    } finally {
+      // A lookup between the first invalidation and the delete may have cached the row again.
+      invalidations.incrementAndGet();
+      cache.remove(authToken);
+    }
+  }
+
+  @Override
+  public void clear() throws DataAccessException {
+    invalidations.incrementAndGet();
+    cache.clear();
+    try {
+      delegate.clear();
+    } finally {
+      invalidations.incrementAndGet();
+      cache.clear();
+    }
+  }
+
+  @Override
+  public long deletionVersion() {
+    return invalidations.get();
+  }
+
+  public long hits() {
+    return hits.get();
+  }
+
+  public long misses() {
+    return misses.get();
+  }
+
+  private void put(AuthData auth) {
+    if (cache.size() >= maxEntries) {
+      evict();
+    }
+    cache.put(auth.authToken(), new Entry(auth, System.nanoTime() + ttlNanos));
+  }
+
+  private void evict() {
+    long now = System.nanoTime();
+    cache.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+
+    // Nothing had expired; drop arbitrary entries to make room.
+    Iterator<String> tokens = cache.keySet().iterator();
+    while (cache.size() >= maxEntries && tokens.hasNext()) {
+      tokens.next();
+      tokens.remove();
+    }
+  }
+}
@@ -0,0 +1,497 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+import model.GameSummary;
+import model.MoveRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind cache in front of another GameDAO.
+ * <p>
+ * Reads of cached games never reach the delegate. Updates replace the cached game and mark it
+ * dirty; a background thread writes each dirty game to the delegate once the durability window
+ * has passed, so a burst of updates to one game becomes a single write. Recorded moves are kept
+ * in order and handed to the delegate's move log on flush; the full state is only rewritten if
+ * something other than a move changed. When the flush queue is full the update is written
+ * through instead. close() writes every pending game before returning.
+ * <p>
+ * A write that fails for a reason that cannot go away, such as a version conflict or a game that
+ * no longer exists, is dropped and the game evicted so the next read reloads it from the
+ * delegate. Other failures are retried with exponential backoff, up to MAX_FLUSH_ATTEMPTS.
+ * <p>
+ * The cache is the authority for the games it holds: version checks are made against the cached
+ * version, and reads return copies so a caller's changes stay private until stored. The delegate
+ * is assumed to have no other writers while a game is cached.
+ */
+public class CachingGameDAO implements GameDAO, AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(CachingGameDAO.class);
+
+  public static final long DEFAULT_FLUSH_WINDOW_MILLIS = 1000;
+  public static final int DEFAULT_MAX_PENDING = 10_000;
+  public static final int DEFAULT_MAX_CACHED = 10_000;
+  public static final int MAX_FLUSH_ATTEMPTS = 5;
+  private static final long MIN_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private record Pending(int gameId, long dueNanos) implements Delayed {
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(dueNanos, ((Pending) other).dueNanos);
+    }
+  }
+
+  /**
+   * A cached game and whether it is over. The status is worked out when a move is recorded, so
+   * listing never runs move generation on the cached board; null means it is not known yet.
+   */
+  private record Cached(GameData game, GameSummary.Status status) {
+  }
+
+  /**
+   * Everything about one game that the delegate has not seen yet.
+   */
+  private static final class PendingWrite {
+    private GameData game;
+    private boolean fullState;
+    private final List<MoveRecord> moves = new ArrayList<>();
+    // The version the delegate holds, which its checked move writes are made against.
+    private int delegateVersion;
+    // Failed flushes so far, which set the retry backoff.
+    private int attempts;
+  }
+
+  /**
+   * What markDirty left for its caller to do once the cache entry is unlocked.
+   */
+  private static final class Marked {
+    // The cache is closed, so the change goes straight to the delegate.
+    private boolean writeThrough;
+    // The change started a new pending write, which needs a flush queued.
+    private boolean first;
+  }
+
+  private final GameDAO delegate;
+  private final long flushWindowNanos;
+  private final int maxPending;
+  private final int maxCached;
+  private final Map<Integer, Cached> cache = new ConcurrentHashMap<>();
+  private final Map<Integer, PendingWrite> dirty = new ConcurrentHashMap<>();
+  // Games whose pending write has been taken out of dirty but not yet stored, with the number of
+  // flushes in progress; they stay pinned in the cache until the delegate has the write.
+  private final Map<Integer, Integer> flushing = new ConcurrentHashMap<>();
+  // Ordered by due time, so a retry waiting out its backoff does not hold up games behind it.
+  private final DelayQueue<Pending> flushQueue = new DelayQueue<>();
+  private final Thread flusher;
+  private volatile boolean closed;
+
+  public CachingGameDAO(GameDAO delegate) {
+    this(delegate, DEFAULT_FLUSH_WINDOW_MILLIS, DEFAULT_MAX_PENDING, DEFAULT_MAX_CACHED);
+  }
+
+  public CachingGameDAO(GameDAO delegate, long flushWindowMillis, int maxPending, int maxCached) {
+    this.delegate = delegate;
+    this.flushWindowNanos = TimeUnit.MILLISECONDS.toNanos(flushWindowMillis);
+    this.maxPending = maxPending;
+    this.maxCached = maxCached;
+    this.flusher = new Thread(this::runFlusher, "game-write-behind");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  @Override
+  public int createGame(GameData game) throws DataAccessException {
+    return delegate.createGame(game);
+  }
+
+  @Override
+  public List<Integer> createGames(List<GameData> games) throws DataAccessException {
+    return delegate.createGames(games);
+  }
+
+  @Override
+  public GameData getGame(int gameId) throws DataAccessException, BadRequestException {
+    Cached cached = cache.get(gameId);
+    if (cached != null) {
+      return copy(cached.game());
+    }
+
+    GameData game = delegate.getGame(gameId);
+    if (game != null) {
+      evictIfFull();
+      Cached raced = cache.putIfAbsent(gameId, new Cached(game, null));
+      return copy(raced != null ? raced.game() : game);
+    }
+    return null;
+  }
+
+  @Override
+  public Collection<GameData> listGames() throws DataAccessException {
+    Map<Integer, GameData> games = new LinkedHashMap<>();
+    for (GameData game : delegate.listGames()) {
+      Cached cached = cache.get(game.gameID());
+      games.put(game.gameID(), cached != null ? copy(cached.game()) : game);
+    }
+    return games.values();
+  }
+
+  /**
+   * Pages through the delegate and corrects the page for games with unwritten changes: their
+   * rows are rebuilt from the cached game and filtered again, and the ones the delegate does not
+   * yet list are added where they fall inside the page.
+   */
+  @Override
+  public Collection<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+    TreeMap<Integer, GameSummary> page = new TreeMap<>();
+    int after = query.afterGameId();
+    boolean exhausted = false;
+    // Rows dropped by the correction leave the page short, so read on until it is full.
+    while (!exhausted && page.size() < query.limit()) {
+      int wanted = query.limit() - page.size();
+      Collection<GameSummary> stored = delegate.listGameSummaries(
+              new GameQuery(after, wanted, query.openSeats(), query.player(), query.status()));
+      exhausted = stored.size() < wanted;
+      for (GameSummary summary : stored) {
+        after = Math.max(after, summary.gameID());
+        GameSummary current = pendingSummary(summary.gameID());
+        if (current == null) {
+          page.put(summary.gameID(), summary);
+        } else if (query.matches(current)) {
+          page.put(current.gameID(), current);
+        }
+      }
+    }
+
+    for (Integer gameId : dirty.keySet()) {
+      if (page.containsKey(gameId) || (!exhausted && gameId > page.lastKey())) {
+        continue;
+      }
+      GameSummary current = pendingSummary(gameId);
+      if (current != null && query.matches(current)) {
+        page.put(gameId, current);
+      }
+    }
+    while (page.size() > query.limit()) {
+      page.pollLastEntry();
+    }
+    return new ArrayList<>(page.values());
+  }
+
+  @Override
+  public void updateGame(GameData game) throws DataAccessException {
+    ensureExists(game.gameID());
+    Marked marked = new Marked();
+    cache.compute(game.gameID(), (id, current) -> {
+      markDirty(marked, game, null, current != null ? current.game().version() : game.version());
+      return new Cached(game, statusAfter(game, null, current));
+    });
+    if (marked.writeThrough) {
+      delegate.updateGame(game);
+      return;
+    }
+    scheduleIfFirst(game.gameID(), marked);
+  }
+
+  @Override
+  public GameData updateGameIfVersion(GameData game) throws DataAccessException {
+    Marked marked = new Marked();
+    GameData updated = compareAndSet(game, null, marked);
+    if (marked.writeThrough) {
+      delegate.updateGame(updated);
+      return updated;
+    }
+    scheduleIfFirst(game.gameID(), marked);
+    return updated;
+  }
+
+  @Override
+  public GameData recordMove(GameData game, MoveRecord move) throws DataAccessException {
+    Marked marked = new Marked();
+    GameData updated = compareAndSet(game, move, marked);
+    if (marked.writeThrough) {
+      return delegate.recordMove(game, move);
+    }
+    scheduleIfFirst(game.gameID(), marked);
+    return updated;
+  }
+
+  @Override
+  public void clear() throws DataAccessException {
+    dirty.clear();
+    flushQueue.clear();
+    cache.clear();
+    delegate.clear();
+  }
+
+  /**
+   * Stops the background writer and writes every pending game to the delegate.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    flusher.interrupt();
+    try {
+      flusher.join(TimeUnit.NANOSECONDS.toMillis(flushWindowNanos) + 5000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (Integer gameId : dirty.keySet()) {
+      flush(gameId);
+    }
+    flushQueue.clear();
+  }
+
+  /**
+   * @return number of updated games not yet written to the delegate
+   */
+  public int pendingWrites() {
+    return dirty.size();
+  }
+
+  private void runFlusher() {
+    while (!closed) {
+      try {
+        flush(flushQueue.take().gameId());
+      } catch (InterruptedException e) {
+        return;
+      } catch (RuntimeException e) {
+        LOG.error("Write-behind flusher failed", e);
+      }
+    }
+  }
+
+  private void ensureExists(int gameId) throws DataAccessException {
+    if (cache.containsKey(gameId)) {
+      return;
+    }
+    try {
+      if (getGame(gameId) == null) {
+        throw new GameNotFoundException();
+      }
+    } catch (BadRequestException e) {
+      throw new GameNotFoundException();
+    }
+  }
+
+  /**
+   * Replaces the cached game if it is still at the version the caller read, marking it dirty in
+   * the same step.
+   */
+  private GameData compareAndSet(GameData game, MoveRecord move, Marked marked) throws DataAccessException {
+    ensureExists(game.gameID());
+    GameData updated = game.withVersion(game.version() + 1);
+    // An entry evicted since ensureExists counts as a conflict; the retry loads it again.
+    Cached stored = cache.computeIfPresent(game.gameID(), (id, current) -> {
+      if (current.game().version() != game.version()) {
+        return current;
+      }
+      markDirty(marked, updated, move, game.version());
+      return new Cached(updated, statusAfter(updated, move, current));
+    });
+    if (stored == null || stored.game() != updated) {
+      throw new VersionConflictException(game.gameID());
+    }
+    return updated;
+  }
+
+  /**
+   * The status of a game after a change; a null move means only players or the turn changed,
+   * which can end the game by resignation but leaves the board as it was.
+   */
+  private static GameSummary.Status statusAfter(GameData game, MoveRecord move, Cached previous) {
+    if (move != null) {
+      return move.finished() ? GameSummary.Status.FINISHED : GameSummary.Status.ACTIVE;
+    }
+    if (game.game().getTeamTurn() == ChessGame.TeamColor.RESIGNED) {
+      return GameSummary.Status.FINISHED;
+    }
+    return previous != null ? previous.status() : null;
+  }
+
+  private static GameData copy(GameData game) throws DataAccessException {
+    return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(),
+            GameStateCodec.decode(GameStateCodec.encode(game.game())), game.version());
+  }
+
+  /**
+   * Folds a change into the game's pending write; a null move means the whole state changed.
+   * previousVersion is the version before this change, which the delegate holds if nothing
+   * else is pending.
+   * <p>
+   * Called from inside the compute that stores the change in the cache, so eviction, which
+   * checks for pending writes under the same entry lock, never sees the new version unmarked.
+   * Anything that may write to the delegate is left to the caller through marked.
+   */
+  private void markDirty(Marked marked, GameData game, MoveRecord move, int previousVersion) {
+    if (closed) {
+      marked.writeThrough = true;
+      return;
+    }
+    dirty.compute(game.gameID(), (id, pending) -> {
+      if (pending == null) {
+        pending = new PendingWrite();
+        pending.delegateVersion = previousVersion;
+        marked.first = true;
+      }
+      // Two checked writes can reach here in either order; keep the later state.
+      if (pending.game == null || game.version() >= pending.game.version()) {
+        pending.game = game;
+      }
+      if (move == null) {
+        pending.fullState = true;
+      } else {
+        pending.moves.add(move);
+      }
+      return pending;
+    });
+  }
+
+  private void scheduleIfFirst(int gameId, Marked marked) {
+    // First change since the last flush; later changes ride along with this queue entry.
+    if (marked.first && !schedule(gameId, flushWindowNanos)) {
+      flush(gameId);
+    }
+  }
+
+  private void flush(int gameId) {
+    flushing.merge(gameId, 1, Integer::sum);
+    try {
+      PendingWrite pending = dirty.remove(gameId);
+      if (pending == null) {
+        return;
+      }
+      try {
+        while (!pending.moves.isEmpty()) {
+          delegate.recordMove(pending.game.withVersion(pending.delegateVersion), pending.moves.get(0));
+          pending.delegateVersion++;
+          pending.moves.remove(0);
+        }
+        if (pending.fullState) {
+          delegate.updateGame(pending.game);
+        }
+      } catch (VersionConflictException | GameNotFoundException | IllegalArgumentException e) {
+        drop(gameId, pending, e);
+      } catch (DataAccessException | RuntimeException e) {
+        retry(gameId, pending, e);
+      }
+    } finally {
+      flushing.computeIfPresent(gameId, (id, count) -> count == 1 ? null : count - 1);
+    }
+  }
+
+  /**
+   * Queues a flush of the game after delayNanos, unless the queue is full.
+   */
+  private boolean schedule(int gameId, long delayNanos) {
+    // Checked then added without a lock, so the bound can be overshot by a few concurrent writers.
+    if (flushQueue.size() >= maxPending) {
+      return false;
+    }
+    flushQueue.add(new Pending(gameId, System.nanoTime() + delayNanos));
+    return true;
+  }
+
+  /**
+   * Gives up on a write the delegate will never accept. Later changes to the game were made on
+   * top of it, so they go too, and the game is evicted so the next read sees what the delegate
+   * holds.
+   */
+  private void drop(int gameId, PendingWrite pending, Exception e) {
+    PendingWrite[] newer = {null};
+    cache.compute(gameId, (id, cached) -> {
+      newer[0] = dirty.remove(id);
+      return null;
+    });
+    int moves = pending.moves.size() + (newer[0] == null ? 0 : newer[0].moves.size());
+    LOG.error("Dropping unwritable changes to game {} ({} moves): {}", gameId, moves, e.getMessage());
+  }
+
+  /**
+   * Puts the unwritten part of a failed flush back ahead of anything recorded meanwhile and
+   * retries it after a backoff, or drops it once MAX_FLUSH_ATTEMPTS have failed.
+   */
+  private void retry(int gameId, PendingWrite pending, Exception e) {
+    pending.attempts++;
+    if (pending.attempts >= MAX_FLUSH_ATTEMPTS) {
+      drop(gameId, pending, e);
+      return;
+    }
+    if (e instanceof RuntimeException) {
+      LOG.error("Failed to write game {}, attempt {}", gameId, pending.attempts, e);
+    } else {
+      LOG.warn("Failed to write game {}, attempt {}: {}", gameId, pending.attempts, e.getMessage());
+    }
+
+    boolean[] requeue = {false};
+    dirty.compute(gameId, (id, newer) -> {
+      if (newer == null) {
+        requeue[0] = true;
+        return pending;
+      }
+      pending.moves.addAll(newer.moves);
+      pending.game = newer.game;
+      pending.fullState |= newer.fullState;
+      return pending;
+    });
+    if (requeue[0] && !closed) {
+      long backoff = Math.max(flushWindowNanos, MIN_RETRY_NANOS) << (pending.attempts - 1);
+      flushQueue.add(new Pending(gameId, System.nanoTime() + backoff));
+    }
+  }
+
+  private boolean unwritten(int gameId) {
+    return dirty.containsKey(gameId) || flushing.containsKey(gameId);
+  }
+
+  /**
+   * @return the summary of a game whose latest state has not been written yet, or null
+   */
+  private GameSummary pendingSummary(int gameId) throws DataAccessException {
+    if (!unwritten(gameId)) {
+      return null;
+    }
+    Cached cached = cache.get(gameId);
+    if (cached == null) {
+      return null;
+    }
+    GameData game = cached.game();
+    // Move generation mutates the board it runs on, so an unknown status is worked out on a copy.
+    GameSummary.Status status = cached.status();
+    if (status == null) {
+      status = GameSummary.statusOf(copy(game).game());
+    }
+    return new GameSummary(game.gameID(), game.gameName(), game.whiteUsername(), game.blackUsername(), status);
+  }
+
+  private void evictIfFull() {
+    if (cache.size() < maxCached) {
+      return;
+    }
+    for (Integer gameId : cache.keySet()) {
+      // Checked under the entry lock, which updates hold while they mark the game dirty.
+      cache.computeIfPresent(gameId, (id, cached) -> unwritten(id) ? cached : null);
+      if (cache.size() < maxCached) {
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,250 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of JDBC connections.
+ * <p>
+ * Borrowed connections are proxies whose close() hands the physical connection back to the
+ * pool, so DAOs keep using try-with-resources unchanged. A connection that has sat idle longer
+ * than the validation bypass window is checked with isValid before it is handed out, and idle
+ * connections beyond the minimum size are closed once they exceed the idle timeout.
+ */
+public class ConnectionPool implements AutoCloseable {
+  private static final long VALIDATION_BYPASS_MILLIS = 500;
+  private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+  public interface ConnectionFactory {
+    Connection create() throws SQLException;
+  }
+
+  public record Config(int minSize, int maxSize, long idleTimeoutMillis, long acquireTimeoutMillis) {}
+
+  public record Stats(int total, int idle, int active, long borrows, long timeouts,
+                      long totalWaitNanos, long maxWaitNanos) {}
+
+  private record IdleConnection(Connection connection, long idleSince) {}
+
+  private final ConnectionFactory factory;
+  private final Config config;
+  private final Semaphore permits;
+  private final Deque<IdleConnection> idle = new ArrayDeque<>();
+  private final AtomicInteger total = new AtomicInteger();
+  private final AtomicLong borrows = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong totalWaitNanos = new AtomicLong();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+  private final ScheduledExecutorService evictor;
+  private volatile boolean closed;
+
+  public ConnectionPool(ConnectionFactory factory, Config config) {
+    this.factory = factory;
+    this.config = config;
+    this.permits = new Semaphore(config.maxSize(), true);
+
+    for (int i = 0; i < config.minSize(); i++) {
+      try {
+        release(factory.create());
+        total.incrementAndGet();
+      } catch (SQLException e) {
+        break;
+      }
+    }
+
+    this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "connection-pool-evictor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(1000, config.idleTimeoutMillis() / 2);
+    evictor.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Borrows a connection, waiting up to the acquisition timeout for one to be free.
+   * The caller must close the returned connection to give it back.
+   */
+  public Connection borrow() throws DataAccessException {
+    if (closed) {
+      throw new DataAccessException("Error: connection pool is closed");
+    }
+
+    long start = System.nanoTime();
+    try {
+      if (!permits.tryAcquire(config.acquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+        timeouts.incrementAndGet();
+        throw new DataAccessException("Error: timed out waiting for a database connection");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DataAccessException("Error: interrupted waiting for a database connection");
+    }
+    recordWait(System.nanoTime() - start);
+
+    try {
+      Connection connection = takeIdle();
+      if (connection == null) {
+        connection = factory.create();
+        total.incrementAndGet();
+      }
+      borrows.incrementAndGet();
+      return wrap(connection);
+    } catch (SQLException e) {
+      permits.release();
+      throw new DataAccessException(e.getMessage());
+    }
+  }
+
+  public Stats stats() {
+    int idleCount;
+    synchronized (idle) {
+      idleCount = idle.size();
+    }
+    int totalCount = total.get();
+    return new Stats(totalCount, idleCount, totalCount - idleCount, borrows.get(), timeouts.get(),
+            totalWaitNanos.get(), maxWaitNanos.get());
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    evictor.shutdownNow();
+    synchronized (idle) {
+      for (IdleConnection entry : idle) {
+        discard(entry.connection());
+      }
+      idle.clear();
+    }
+  }
+
+  private Connection takeIdle() {
+    long now = System.currentTimeMillis();
+    while (true) {
+      IdleConnection entry;
+      synchronized (idle) {
+        entry = idle.pollFirst();
+      }
+      if (entry == null) {
+        return null;
+      }
+      if (now - entry.idleSince() < VALIDATION_BYPASS_MILLIS || isValid(entry.connection())) {
+        return entry.connection();
+      }
+      discard(entry.connection());
+    }
+  }
+
+  private boolean isValid(Connection connection) {
+    try {
+      return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private void giveBack(Connection connection) {
+    try {
+      if (closed || connection.isClosed()) {
+        discard(connection);
+      } else {
+        if (!connection.getAutoCommit()) {
+          connection.rollback();
+          connection.setAutoCommit(true);
+        }
+        release(connection);
+      }
+    } catch (SQLException e) {
+      discard(connection);
+    } finally {
+      permits.release();
+    }
+  }
+
+  private void release(Connection connection) {
+    synchronized (idle) {
+      // Most recently used first, so surplus connections age out at the tail.
+      idle.addFirst(new IdleConnection(connection, System.currentTimeMillis()));
+    }
+  }
+
+  private void discard(Connection connection) {
+    total.decrementAndGet();
+    try {
+      connection.close();
+    } catch (SQLException ignored) {
+      // Already unusable; nothing more to release.
+    }
+  }
+
+  private void evictIdle() {
+    long cutoff = System.currentTimeMillis() - config.idleTimeoutMillis();
+    while (true) {
+      IdleConnection entry;
+      synchronized (idle) {
+        IdleConnection oldest = idle.peekLast();
+        if (oldest == null || oldest.idleSince() > cutoff || total.get() <= config.minSize()) {
+          return;
+        }
+        entry = idle.pollLast();
+      }
+      discard(entry.connection());
+    }
+  }
+
+  private void recordWait(long nanos) {
+    totalWaitNanos.addAndGet(nanos);
+    maxWaitNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  private Connection wrap(Connection connection) {
+    boolean[] returned = {false};
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "close" -> {
+                  if (!returned[0]) {
+                    returned[0] = true;
+                    giveBack(connection);
+                  }
+                  return null;
+                }
+                case "isClosed" -> {
+                  return returned[0] || connection.isClosed();
+                }
+                case "unwrap" -> {
+                  return connection.unwrap((Class<?>) args[0]);
+                }
+                case "equals" -> {
+                  return proxy == args[0];
+                }
+                case "hashCode" -> {
+                  return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                  return "pooled " + connection;
+                }
+                default -> {
+                  if (returned[0]) {
+                    throw new SQLException("Connection has been returned to the pool");
+                  }
+                  try {
+                    return method.invoke(connection, args);
+                  } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                  }
+                }
+              }
+            });
+  }
+}
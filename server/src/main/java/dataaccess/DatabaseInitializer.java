@@ -1,5 +1,10 @@
 package dataaccess;
 
+import chess.ChessGame;
+import com.google.gson.Gson;
+import model.GameSummary;
+
+import java.sql.Connection;
 import java.sql.SQLException;
 
 public class DatabaseInitializer {
@@ -24,10 +29,26 @@ public class DatabaseInitializer {
             whiteUsername VARCHAR(255),
             blackUsername VARCHAR(255),
             gameName VARCHAR(255) NOT NULL,
-            gameState TEXT NOT NULL,
+            gameState VARBINARY(64) NOT NULL,
+            snapshotPly INT NOT NULL DEFAULT 0,
+            finished BOOLEAN NOT NULL DEFAULT FALSE,
+            version INT NOT NULL DEFAULT 0,
+            INDEX idx_games_finished (finished),
             FOREIGN KEY (whiteUsername) REFERENCES users(username) ON DELETE SET NULL,
             FOREIGN KEY (blackUsername) REFERENCES users(username) ON DELETE SET NULL
         )
+        """,
+          """
+        CREATE TABLE IF NOT EXISTS game_moves (
+            gameID INT NOT NULL,
+            ply INT NOT NULL,
+            fromSquare TINYINT NOT NULL,
+            toSquare TINYINT NOT NULL,
+            promotion TINYINT NOT NULL DEFAULT 0,
+            positionHash BIGINT NOT NULL,
+            PRIMARY KEY (gameID, ply),
+            FOREIGN KEY (gameID) REFERENCES games(gameID) ON DELETE CASCADE
+        )
         """
   };
 
@@ -40,9 +61,71 @@ public class DatabaseInitializer {
             preparedStatement.executeUpdate();
           }
         }
+        migrateJsonGameState(conn);
       }
     } catch (SQLException ex) {
       throw new DataAccessException("Unable to initialize database: " + ex.getMessage());
     }
   }
+
+  /**
+   * Converts a games table created before the binary encoding, whose gameState column holds
+   * Gson JSON in a TEXT column, to the current layout. Existing rows get snapshotPly 0, which is
+   * correct since they have no logged moves, and version 0; finished is worked out from each game
+   * as it is converted. The player columns need no new index; their foreign keys already have one.
+   * Does nothing once converted.
+   */
+  private static void migrateJsonGameState(Connection conn) throws SQLException, DataAccessException {
+    String columnQuery = """
+        SELECT COLUMN_NAME, DATA_TYPE FROM information_schema.COLUMNS
+        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'games'
+        AND COLUMN_NAME IN ('gameState', 'gameStateBinary')
+        """;
+    String stateType = null;
+    boolean partiallyMigrated = false;
+    try (var ps = conn.prepareStatement(columnQuery); var rs = ps.executeQuery()) {
+      while (rs.next()) {
+        if (rs.getString("COLUMN_NAME").equals("gameState")) {
+          stateType = rs.getString("DATA_TYPE");
+        } else {
+          partiallyMigrated = true;
+        }
+      }
+    }
+    if (stateType == null || stateType.equalsIgnoreCase("varbinary")) {
+      return;
+    }
+
+    // A previous run may have stopped after adding the columns; DDL is not transactional in MySQL.
+    if (!partiallyMigrated) {
+      try (var ps = conn.prepareStatement("""
+              ALTER TABLE games ADD COLUMN gameStateBinary VARBINARY(64),
+              ADD COLUMN snapshotPly INT NOT NULL DEFAULT 0,
+              ADD COLUMN finished BOOLEAN NOT NULL DEFAULT FALSE,
+              ADD COLUMN version INT NOT NULL DEFAULT 0,
+              ADD INDEX idx_games_finished (finished)
+              """)) {
+        ps.executeUpdate();
+      }
+    }
+
+    var gson = new Gson();
+    try (var select = conn.prepareStatement("SELECT gameID, gameState FROM games");
+         var update = conn.prepareStatement("UPDATE games SET gameStateBinary = ?, finished = ? WHERE gameID = ?");
+         var rs = select.executeQuery()) {
+      while (rs.next()) {
+        ChessGame game = gson.fromJson(rs.getString("gameState"), ChessGame.class);
+        update.setBytes(1, GameStateCodec.encode(game));
+        update.setBoolean(2, GameSummary.statusOf(game) == GameSummary.Status.FINISHED);
+        update.setInt(3, rs.getInt("gameID"));
+        update.addBatch();
+      }
+      update.executeBatch();
+    }
+
+    try (var ps = conn.prepareStatement(
+            "ALTER TABLE games DROP COLUMN gameState, CHANGE gameStateBinary gameState VARBINARY(64) NOT NULL")) {
+      ps.executeUpdate();
+    }
+  }
 }
@@ -1,13 +1,74 @@
 package dataaccess;
 
 import model.GameData;
+import model.GameSummary;
+import model.MoveRecord;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 
 public interface GameDAO {
-  void createGame(GameData game) throws DataAccessException;
+  /**
+   * Stores a new game; the gameID it carries is ignored.
+   *
+   * @return the ID assigned to the game
+   */
+  int createGame(GameData game) throws DataAccessException;
+
+  /**
+   * Stores several new games at once, all or none where the store supports it.
+   *
+   * @return the assigned IDs, in the order the games were given
+   */
+  default List<Integer> createGames(List<GameData> games) throws DataAccessException {
+    List<Integer> ids = new ArrayList<>(games.size());
+    for (GameData game : games) {
+      ids.add(createGame(game));
+    }
+    return ids;
+  }
+
   GameData getGame(int gameId) throws DataAccessException, BadRequestException;
   Collection<GameData> listGames() throws DataAccessException;
 
+  /**
+   * One page of game summaries in gameID order. Stores that can answer this without loading
+   * each game's state should; the default builds the summaries from listGames().
+   */
+  default Collection<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+    return listGames().stream()
+            .map(GameSummary::of)
+            .filter(query::matches)
+            .sorted(Comparator.comparingInt(GameSummary::gameID))
+            .limit(query.limit())
+            .toList();
+  }
+
+  /**
+   * Stores the game as given, version included, whatever is stored now.
+   */
   void updateGame(GameData game) throws DataAccessException;
+
+  /**
+   * Stores the game only if the stored version still equals game.version(), and bumps it.
+   *
+   * @return the game as stored, with its new version
+   * @throws VersionConflictException if the game changed since it was read
+   */
+  GameData updateGameIfVersion(GameData game) throws DataAccessException;
+
+  /**
+   * Persists one move of a game whose state already includes it, checked against the version
+   * like updateGameIfVersion. Stores that keep a move log append just the move; the default
+   * rewrites the whole game.
+   *
+   * @return the game as stored, with its new version
+   * @throws VersionConflictException if the game changed since it was read
+   */
+  default GameData recordMove(GameData game, MoveRecord move) throws DataAccessException {
+    return updateGameIfVersion(game);
+  }
+
   void clear() throws DataAccessException;
 }
@@ -0,0 +1,10 @@
+package dataaccess;
+
+/**
+ * The game a write was meant for does not exist, for example because the games were cleared.
+ */
+public class GameNotFoundException extends DataAccessException {
+  public GameNotFoundException() {
+    super("Error: game not found");
+  }
+}
@@ -0,0 +1,28 @@
+package dataaccess;
+
+import model.GameSummary;
+
+/**
+ * One page of the game list. Pages are keyed on gameID: a page holds the first limit games
+ * with an ID above afterGameId that pass every filter, and the next page starts after the
+ * last ID returned. A null player or status leaves that filter off.
+ */
+public record GameQuery(int afterGameId, int limit, boolean openSeats, String player, GameSummary.Status status) {
+  public static final int DEFAULT_LIMIT = 100;
+  public static final int MAX_LIMIT = 1000;
+
+  public static GameQuery firstPage() {
+    return new GameQuery(0, DEFAULT_LIMIT, false, null, null);
+  }
+
+  public GameQuery withPlayer(String player) {
+    return new GameQuery(afterGameId, limit, openSeats, player, status);
+  }
+
+  public boolean matches(GameSummary game) {
+    return game.gameID() > afterGameId
+            && (!openSeats || game.hasOpenSeat())
+            && (player == null || player.equals(game.whiteUsername()) || player.equals(game.blackUsername()))
+            && (status == null || status == game.status());
+  }
+}
@@ -0,0 +1,72 @@
+package dataaccess;
+
+import chess.*;
+
+/**
+ * Compact binary form of a ChessGame for the games table.
+ * <p>
+ * Layout: one format-version byte, one byte for the team turn, two bytes for the ply count
+ * (big-endian, unsigned), then 32 bytes packing the 64 squares as 4-bit codes from a1 to h8, low
+ * nibble first. Code 0 is an empty square, 1 to 6 are white pieces and 9 to 14 black pieces, by
+ * piece type ordinal plus one.
+ */
+public final class GameStateCodec {
+  public static final int LENGTH = 36;
+  public static final int MAX_PLY = 0xFFFF;
+  private static final byte VERSION = 1;
+  private static final ChessGame.TeamColor[] TEAMS = ChessGame.TeamColor.values();
+  private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+  private GameStateCodec() {
+  }
+
+  /**
+   * @throws IllegalArgumentException if the game is past MAX_PLY, which the ply field cannot hold
+   */
+  public static byte[] encode(ChessGame game) {
+    if (game.getPly() < 0 || game.getPly() > MAX_PLY) {
+      throw new IllegalArgumentException("Ply " + game.getPly() + " does not fit the stored game state");
+    }
+    byte[] bytes = new byte[LENGTH];
+    bytes[0] = VERSION;
+    bytes[1] = (byte) game.getTeamTurn().ordinal();
+    bytes[2] = (byte) (game.getPly() >> 8);
+    bytes[3] = (byte) game.getPly();
+
+    ChessBoard board = game.getBoard();
+    for (int square = 0; square < 64; square++) {
+      ChessPiece piece = board.getPiece(ChessPosition.of(square / 8 + 1, square % 8 + 1));
+      if (piece != null) {
+        int code = piece.getPieceType().ordinal() + 1 + (piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 0 : 8);
+        bytes[4 + square / 2] |= (byte) (square % 2 == 0 ? code : code << 4);
+      }
+    }
+    return bytes;
+  }
+
+  public static ChessGame decode(byte[] bytes) throws DataAccessException {
+    if (bytes == null || bytes.length != LENGTH || bytes[0] != VERSION || bytes[1] < 0 || bytes[1] >= TEAMS.length) {
+      throw new DataAccessException("Error: unreadable game state");
+    }
+
+    ChessBoard board = new ChessBoard();
+    for (int square = 0; square < 64; square++) {
+      int packed = bytes[4 + square / 2];
+      int code = (square % 2 == 0 ? packed : packed >> 4) & 0xF;
+      if (code != 0) {
+        int type = (code & 7) - 1;
+        if (type < 0 || type >= TYPES.length) {
+          throw new DataAccessException("Error: unreadable game state");
+        }
+        ChessGame.TeamColor color = code < 8 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        board.addPiece(ChessPosition.of(square / 8 + 1, square % 8 + 1), ChessPiece.of(color, TYPES[type]));
+      }
+    }
+
+    ChessGame game = new ChessGame();
+    game.setBoard(board);
+    game.setTeamTurn(TEAMS[bytes[1]]);
+    game.setPly(((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF));
+    return game;
+  }
+}
@@ -0,0 +1,430 @@
+package dataaccess;
+
+import model.GameData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Games stored in a memory-mapped, append-only journal file.
+ * <p>
+ * Every create or update appends a record holding the whole game and its version (about a
+ * hundred bytes, the state being in GameStateCodec form), and an in-memory index points each
+ * gameID at its latest record. A record is a length, a CRC32 of the payload and the payload; the length is written
+ * last, so a record cut short by a crash reads as the end of the journal. On open the journal
+ * is scanned to rebuild the index, stopping at the first record that is missing or fails its
+ * checksum. A background thread forces the mapping to disk every sync interval and, once more
+ * than half the journal is superseded records, rewrites it with only the latest record of each
+ * game.
+ */
+public class JournalGameDAO implements GameDAO, AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(JournalGameDAO.class);
+
+  public static final long DEFAULT_SYNC_MILLIS = 200;
+  public static final long DEFAULT_COMPACT_MIN_BYTES = 4 << 20;
+
+  private static final int MAGIC = 0x43484A4C;
+  private static final int VERSION = 1;
+  private static final int FILE_HEADER = 8;
+  private static final int RECORD_HEADER = 8;
+  private static final int INITIAL_CAPACITY = 1 << 20;
+  private static final byte PUT = 1;
+  private static final byte CLEAR = 2;
+
+  private record Entry(int offset, int size, int version) {}
+
+  private final Path file;
+  private final long compactMinBytes;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Integer, Entry> index = new HashMap<>();
+  private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "game-journal");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+  private int end;
+  private long liveBytes;
+  private int nextGameId = 1;
+  private volatile boolean unsynced;
+
+  public JournalGameDAO(Path file) throws DataAccessException {
+    this(file, DEFAULT_SYNC_MILLIS, DEFAULT_COMPACT_MIN_BYTES);
+  }
+
+  public JournalGameDAO(Path file, long syncMillis, long compactMinBytes) throws DataAccessException {
+    this.file = file;
+    this.compactMinBytes = compactMinBytes;
+    try {
+      open();
+    } catch (IOException e) {
+      throw new DataAccessException("Error: unable to open journal " + file + ": " + e.getMessage());
+    }
+    maintenance.scheduleWithFixedDelay(this::maintain, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public int createGame(GameData game) throws DataAccessException {
+    lock.writeLock().lock();
+    try {
+      int gameId = nextGameId++;
+      append(gameId, 0, encode(gameId, game.withVersion(0)));
+      return gameId;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public GameData getGame(int gameId) throws DataAccessException {
+    byte[] payload;
+    lock.readLock().lock();
+    try {
+      Entry entry = index.get(gameId);
+      if (entry == null) {
+        return null;
+      }
+      payload = payload(entry.offset());
+    } finally {
+      lock.readLock().unlock();
+    }
+    return decode(payload);
+  }
+
+  @Override
+  public Collection<GameData> listGames() throws DataAccessException {
+    List<byte[]> payloads = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      for (Entry entry : index.values()) {
+        payloads.add(payload(entry.offset()));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    List<GameData> games = new ArrayList<>(payloads.size());
+    for (byte[] payload : payloads) {
+      games.add(decode(payload));
+    }
+    return games;
+  }
+
+  @Override
+  public void updateGame(GameData game) throws DataAccessException {
+    byte[] payload = encode(game.gameID(), game);
+    lock.writeLock().lock();
+    try {
+      if (!index.containsKey(game.gameID())) {
+        throw new GameNotFoundException();
+      }
+      append(game.gameID(), game.version(), payload);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public GameData updateGameIfVersion(GameData game) throws DataAccessException {
+    GameData updated = game.withVersion(game.version() + 1);
+    byte[] payload = encode(game.gameID(), updated);
+    lock.writeLock().lock();
+    try {
+      Entry entry = index.get(game.gameID());
+      if (entry == null) {
+        throw new GameNotFoundException();
+      }
+      if (entry.version() != game.version()) {
+        throw new VersionConflictException(game.gameID());
+      }
+      append(game.gameID(), updated.version(), payload);
+      return updated;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void clear() throws DataAccessException {
+    lock.writeLock().lock();
+    try {
+      append(0, 0, new byte[]{CLEAR, 0, 0, 0, 0});
+      index.clear();
+      liveBytes = 0;
+      nextGameId = 1;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Rewrites the journal with only the latest record of each game and swaps it in.
+   */
+  public void compact() throws DataAccessException {
+    lock.writeLock().lock();
+    try {
+      Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+      Map<Integer, Entry> moved = new HashMap<>();
+      try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).putInt(MAGIC).putInt(VERSION).flip();
+        out.write(header);
+        int position = FILE_HEADER;
+        for (var game : new TreeMap<>(index).entrySet()) {
+          Entry entry = game.getValue();
+          out.write(buffer.slice(entry.offset(), entry.size()));
+          moved.put(game.getKey(), new Entry(position, entry.size(), entry.version()));
+          position += entry.size();
+        }
+        out.force(true);
+      }
+
+      int before = end;
+      buffer.force();
+      channel.close();
+      Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      end = (int) channel.size();
+      map(Math.max(INITIAL_CAPACITY, end * 2));
+      index.clear();
+      index.putAll(moved);
+      LOG.info("Compacted {} from {} to {} bytes", file, before, end);
+    } catch (IOException e) {
+      throw new DataAccessException("Error: unable to compact journal " + file + ": " + e.getMessage());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Stops the background thread and forces the journal to disk.
+   */
+  @Override
+  public void close() {
+    maintenance.shutdown();
+    try {
+      maintenance.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    lock.writeLock().lock();
+    try {
+      if (channel.isOpen()) {
+        buffer.force();
+        channel.close();
+      }
+    } catch (IOException e) {
+      LOG.error("Failed to close journal {}", file, e);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return bytes in use, including superseded records
+   */
+  public int journalBytes() {
+    lock.readLock().lock();
+    try {
+      return end;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void open() throws IOException, DataAccessException {
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long size = channel.size();
+    if (size > Integer.MAX_VALUE) {
+      throw new DataAccessException("Error: journal " + file + " is larger than 2 GB");
+    }
+    map(Math.max(INITIAL_CAPACITY, (int) size));
+    if (size == 0) {
+      buffer.putInt(0, MAGIC).putInt(4, VERSION);
+      end = FILE_HEADER;
+      return;
+    }
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new DataAccessException("Error: " + file + " is not a journal this server can read");
+    }
+    recover();
+  }
+
+  /**
+   * Rebuilds the index from the records on disk and drops anything after the last good one.
+   */
+  private void recover() {
+    int position = FILE_HEADER;
+    int records = 0;
+    while (position + RECORD_HEADER <= buffer.capacity()) {
+      int length = buffer.getInt(position);
+      if (length <= 0 || position + RECORD_HEADER + length > buffer.capacity()) {
+        break;
+      }
+      CRC32 crc = new CRC32();
+      crc.update(buffer.slice(position + RECORD_HEADER, length));
+      if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+        break;
+      }
+      replay(position, RECORD_HEADER + length);
+      position += RECORD_HEADER + length;
+      records++;
+    }
+    end = position;
+
+    if (position + 4 <= buffer.capacity() && buffer.getInt(position) != 0) {
+      LOG.warn("Discarding damaged records after offset {} in {}", position, file);
+      for (int i = position; i < buffer.capacity(); i++) {
+        buffer.put(i, (byte) 0);
+      }
+    }
+    LOG.info("Recovered {} games from {} records in {}", index.size(), records, file);
+  }
+
+  private void replay(int offset, int size) {
+    byte type = buffer.get(offset + RECORD_HEADER);
+    int gameId = buffer.getInt(offset + RECORD_HEADER + 1);
+    if (type == CLEAR) {
+      index.clear();
+      liveBytes = 0;
+      nextGameId = 1;
+    } else if (type == PUT) {
+      track(gameId, new Entry(offset, size, buffer.getInt(offset + RECORD_HEADER + 5)));
+      nextGameId = Math.max(nextGameId, gameId + 1);
+    }
+  }
+
+  private void append(int gameId, int version, byte[] payload) throws DataAccessException {
+    int size = RECORD_HEADER + payload.length;
+    ensureCapacity((long) end + size + 4);
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    buffer.put(end + RECORD_HEADER, payload);
+    buffer.putInt(end + 4, (int) crc.getValue());
+    // The length goes last: until it is written the record reads as the end of the journal.
+    buffer.putInt(end, payload.length);
+    if (payload[0] == PUT) {
+      track(gameId, new Entry(end, size, version));
+    }
+    end += size;
+    unsynced = true;
+  }
+
+  private void track(int gameId, Entry entry) {
+    Entry previous = index.put(gameId, entry);
+    liveBytes += entry.size() - (previous == null ? 0 : previous.size());
+  }
+
+  private void ensureCapacity(long needed) throws DataAccessException {
+    if (needed <= buffer.capacity()) {
+      return;
+    }
+    if (needed > Integer.MAX_VALUE) {
+      throw new DataAccessException("Error: journal " + file + " is full");
+    }
+    try {
+      buffer.force();
+      map((int) Math.min(Integer.MAX_VALUE, Math.max(needed, (long) buffer.capacity() * 2)));
+    } catch (IOException e) {
+      throw new DataAccessException("Error: unable to grow journal " + file + ": " + e.getMessage());
+    }
+  }
+
+  private void map(int capacity) throws IOException {
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+  }
+
+  private void maintain() {
+    try {
+      MappedByteBuffer mapped;
+      boolean shouldCompact;
+      lock.readLock().lock();
+      try {
+        mapped = buffer;
+        long superseded = end - FILE_HEADER - liveBytes;
+        shouldCompact = end >= compactMinBytes && superseded > liveBytes;
+      } finally {
+        lock.readLock().unlock();
+      }
+      // Forced outside the lock so appends carry on meanwhile; a replaced mapping still covers the same pages.
+      if (unsynced) {
+        unsynced = false;
+        mapped.force();
+      }
+      if (shouldCompact) {
+        compact();
+      }
+    } catch (DataAccessException | RuntimeException e) {
+      LOG.warn("Journal maintenance failed for {}", file, e);
+    }
+  }
+
+  private byte[] payload(int offset) {
+    byte[] payload = new byte[buffer.getInt(offset)];
+    buffer.get(offset + RECORD_HEADER, payload);
+    return payload;
+  }
+
+  private static byte[] encode(int gameId, GameData game) throws DataAccessException {
+    try {
+      var bytes = new ByteArrayOutputStream(128);
+      var out = new DataOutputStream(bytes);
+      out.writeByte(PUT);
+      out.writeInt(gameId);
+      out.writeInt(game.version());
+      writeNullable(out, game.whiteUsername());
+      writeNullable(out, game.blackUsername());
+      out.writeUTF(game.gameName());
+      byte[] state = GameStateCodec.encode(game.game());
+      out.writeShort(state.length);
+      out.write(state);
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new DataAccessException("Error: unable to encode game " + gameId);
+    }
+  }
+
+  private static GameData decode(byte[] payload) throws DataAccessException {
+    try {
+      var in = new DataInputStream(new ByteArrayInputStream(payload));
+      // Only PUT records are indexed, so the type byte needs no check.
+      in.readByte();
+      int gameId = in.readInt();
+      int version = in.readInt();
+      String whiteUsername = readNullable(in);
+      String blackUsername = readNullable(in);
+      String gameName = in.readUTF();
+      byte[] state = new byte[in.readUnsignedShort()];
+      in.readFully(state);
+      return new GameData(gameId, whiteUsername, blackUsername, gameName, GameStateCodec.decode(state), version);
+    } catch (IOException e) {
+      throw new DataAccessException("Error: unreadable journal record");
+    }
+  }
+
+  private static void writeNullable(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullable(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
@@ -2,11 +2,16 @@ package dataaccess;
 
 import model.AuthData;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MemoryAuthDAO implements AuthDAO {
-  private final Map<String, AuthData> auths = new HashMap<>();
+  private final Map<String, AuthData> auths = new ConcurrentHashMap<>();
+  // Bumped after every removal, so a WebSocket session bound to a token sees the logout.
+  private final AtomicLong deletions = new AtomicLong();
 
   @Override
   public void createAuth(AuthData auth) throws DataAccessException {
@@ -21,11 +26,21 @@ public class MemoryAuthDAO implements AuthDAO {
   @Override
   public void deleteAuth(String authToken) throws DataAccessException {
     auths.remove(authToken);
+    deletions.incrementAndGet();
+  }
+
+  @Override
+  public long deletionVersion() {
+    return deletions.get();
   }
 
   @Override
   public void clear() throws DataAccessException {
     auths.clear();
+    deletions.incrementAndGet();
   }
-}
 
+  Collection<AuthData> listAuths() {
+    return List.copyOf(auths.values());
+  }
+}
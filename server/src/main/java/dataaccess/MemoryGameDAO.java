@@ -2,44 +2,102 @@ package dataaccess;
 
 import model.GameData;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Games held in memory, safe for concurrent requests.
+ * <p>
+ * Each game is kept in its GameStateCodec form, like a database row, so callers always get
+ * their own copy to change and a stored game is never seen half-updated. Updates replace the
+ * entry through ConcurrentHashMap.computeIfPresent, which locks only the bin holding that game,
+ * so updates to different games do not wait on each other and a version check cannot race
+ * with another update to the same game.
+ */
 public class MemoryGameDAO implements GameDAO {
-  private final Map<Integer, GameData> games = new HashMap<>();
-  private int nextGameId = 1;
+
+  /**
+   * A game as stored, which is also what MemorySnapshot writes to disk.
+   */
+  record StoredGame(int gameID, String whiteUsername, String blackUsername, String gameName, byte[] state,
+                    int version) {
+    static StoredGame of(int gameId, GameData game) {
+      return new StoredGame(gameId, game.whiteUsername(), game.blackUsername(), game.gameName(),
+              GameStateCodec.encode(game.game()), game.version());
+    }
+
+    GameData toGameData() throws DataAccessException {
+      return new GameData(gameID, whiteUsername, blackUsername, gameName, GameStateCodec.decode(state), version);
+    }
+  }
+
+  private final Map<Integer, StoredGame> games = new ConcurrentHashMap<>();
+  private final AtomicInteger nextGameId = new AtomicInteger(1);
 
   @Override
-  public void createGame(GameData game) throws DataAccessException {
-    int gameId = nextGameId++;
-    game = new GameData(gameId, game.whiteUsername(), game.blackUsername(), game.gameName(), game.game());
-    games.put(gameId, game);
+  public int createGame(GameData game) throws DataAccessException {
+    int gameId = nextGameId.getAndIncrement();
+    games.put(gameId, StoredGame.of(gameId, game.withVersion(0)));
+    return gameId;
   }
 
   @Override
   public GameData getGame(int gameId) throws DataAccessException {
-    return games.get(gameId);
+    StoredGame game = games.get(gameId);
+    return game == null ? null : game.toGameData();
   }
 
   @Override
   public Collection<GameData> listGames() throws DataAccessException {
-    return games.values();
+    List<GameData> result = new ArrayList<>(games.size());
+    for (StoredGame game : games.values()) {
+      result.add(game.toGameData());
+    }
+    return result;
   }
 
   @Override
   public void updateGame(GameData game) throws DataAccessException {
-    if (!games.containsKey(game.gameID())) {
-      throw new DataAccessException("Error: game not found");
+    StoredGame updated = StoredGame.of(game.gameID(), game);
+    if (games.computeIfPresent(game.gameID(), (id, existing) -> updated) == null) {
+      throw new GameNotFoundException();
     }
-    games.put(game.gameID(), game);
+  }
+
+  @Override
+  public GameData updateGameIfVersion(GameData game) throws DataAccessException {
+    GameData updated = game.withVersion(game.version() + 1);
+    StoredGame replacement = StoredGame.of(game.gameID(), updated);
+    StoredGame stored = games.computeIfPresent(game.gameID(), (id, existing) ->
+            existing.version() == game.version() ? replacement : existing);
+    if (stored == null) {
+      throw new GameNotFoundException();
+    }
+    if (stored != replacement) {
+      throw new VersionConflictException(game.gameID());
+    }
+    return updated;
   }
 
   @Override
   public void clear() throws DataAccessException {
     games.clear();
-    nextGameId = 1;
+    nextGameId.set(1);
   }
-}
 
+  Collection<StoredGame> storedGames() {
+    return List.copyOf(games.values());
+  }
 
+  /**
+   * Puts back a game read from a snapshot, keeping new IDs above every restored one.
+   */
+  void restore(StoredGame game) {
+    games.put(game.gameID(), game);
+    nextGameId.accumulateAndGet(game.gameID() + 1, Math::max);
+  }
+}
@@ -0,0 +1,168 @@
+package dataaccess;
+
+import model.AuthData;
+import model.UserData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the in-memory DAOs to a file on an interval and loads them back at startup, so a
+ * server without a database keeps its users, tokens and games across restarts.
+ * <p>
+ * Each save writes a temporary file next to the target and renames it over the target, so a
+ * crash mid-write leaves the previous snapshot intact. Changes made after the last save are
+ * lost on a crash; close() saves once more on a clean shutdown. The games DAO may be null when
+ * games are kept elsewhere, such as in a JournalGameDAO.
+ */
+public class MemorySnapshot implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(MemorySnapshot.class);
+
+  private static final int MAGIC = 0x43485353;
+  private static final int VERSION = 1;
+
+  private final Path file;
+  private final MemoryUserDAO users;
+  private final MemoryAuthDAO auths;
+  private final MemoryGameDAO games;
+  private final ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "memory-snapshot");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public MemorySnapshot(Path file, MemoryUserDAO users, MemoryAuthDAO auths, MemoryGameDAO games) {
+    this.file = file;
+    this.users = users;
+    this.auths = auths;
+    this.games = games;
+  }
+
+  /**
+   * Fills the DAOs from the snapshot file; does nothing if there is no file yet.
+   */
+  public void load() throws DataAccessException {
+    if (!Files.exists(file)) {
+      return;
+    }
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new DataAccessException("Error: " + file + " is not a snapshot this server can read");
+      }
+      int userCount = in.readInt();
+      for (int i = 0; i < userCount; i++) {
+        users.restore(new UserData(in.readUTF(), in.readUTF(), in.readUTF()));
+      }
+      int authCount = in.readInt();
+      for (int i = 0; i < authCount; i++) {
+        String authToken = in.readUTF();
+        auths.createAuth(new AuthData(in.readUTF(), authToken));
+      }
+      int gameCount = in.readInt();
+      for (int i = 0; i < gameCount; i++) {
+        int gameId = in.readInt();
+        String whiteUsername = readNullable(in);
+        String blackUsername = readNullable(in);
+        String gameName = in.readUTF();
+        byte[] state = new byte[in.readUnsignedShort()];
+        in.readFully(state);
+        int version = in.readInt();
+        if (games != null) {
+          games.restore(new MemoryGameDAO.StoredGame(gameId, whiteUsername, blackUsername, gameName, state, version));
+        }
+      }
+      LOG.info("Loaded {} users, {} tokens and {} games from {}", userCount, authCount, gameCount, file);
+    } catch (IOException e) {
+      throw new DataAccessException("Error: unable to read snapshot " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Saves every intervalSeconds until closed.
+   */
+  public void start(long intervalSeconds) {
+    saver.scheduleWithFixedDelay(() -> {
+      try {
+        save();
+      } catch (DataAccessException e) {
+        LOG.warn("Snapshot failed: {}", e.getMessage());
+      }
+    }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+  }
+
+  public void save() throws DataAccessException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        Collection<UserData> userList = users.listUsers();
+        out.writeInt(userList.size());
+        for (UserData user : userList) {
+          out.writeUTF(user.username());
+          out.writeUTF(user.password());
+          out.writeUTF(user.email());
+        }
+
+        Collection<AuthData> authList = auths.listAuths();
+        out.writeInt(authList.size());
+        for (AuthData auth : authList) {
+          out.writeUTF(auth.authToken());
+          out.writeUTF(auth.username());
+        }
+
+        Collection<MemoryGameDAO.StoredGame> gameList = games == null ? List.of() : games.storedGames();
+        out.writeInt(gameList.size());
+        for (MemoryGameDAO.StoredGame game : gameList) {
+          out.writeInt(game.gameID());
+          writeNullable(out, game.whiteUsername());
+          writeNullable(out, game.blackUsername());
+          out.writeUTF(game.gameName());
+          out.writeShort(game.state().length);
+          out.write(game.state());
+          out.writeInt(game.version());
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new DataAccessException("Error: unable to write snapshot " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Stops the interval saves and saves one last time.
+   */
+  @Override
+  public void close() {
+    saver.shutdown();
+    try {
+      saver.awaitTermination(5, TimeUnit.SECONDS);
+      save();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (DataAccessException e) {
+      LOG.error("Final snapshot failed: {}", e.getMessage());
+    }
+  }
+
+  private static void writeNullable(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullable(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
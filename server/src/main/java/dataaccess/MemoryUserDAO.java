@@ -1,19 +1,28 @@
 package dataaccess;
 
 import model.UserData;
+import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemoryUserDAO implements UserDAO {
-  private final Map<String, UserData> users = new HashMap<>();
+  private final Map<String, UserData> users = new ConcurrentHashMap<>();
 
   @Override
   public void createUser(UserData user) throws DataAccessException {
-    if (users.containsKey(user.username())) {
+    var hashed = new UserData(user.username(), BCrypt.hashpw(user.password(), BCrypt.gensalt()), user.email());
+    if (users.putIfAbsent(user.username(), hashed) != null) {
       throw new DataAccessException("Error: already taken");
     }
+  }
+
+  /**
+   * Puts back a user read from a snapshot, whose password is already hashed.
+   */
+  void restore(UserData user) {
     users.put(user.username(), user);
   }
 
@@ -24,7 +33,7 @@ public class MemoryUserDAO implements UserDAO {
 
   @Override
   public Collection<UserData> listUsers() throws DataAccessException {
-    return users.values();
+    return List.copyOf(users.values());
   }
 
   @Override
@@ -32,4 +41,3 @@ public class MemoryUserDAO implements UserDAO {
     users.clear();
   }
 }
-
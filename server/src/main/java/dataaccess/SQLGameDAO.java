@@ -1,26 +1,84 @@
 package dataaccess;
 
-import chess.ChessGame;
+import chess.*;
+import chess.rules.Bitboards;
 import model.GameData;
-import com.google.gson.Gson;
+import model.GameSummary;
+import model.MoveRecord;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Games are stored as a snapshot row in games plus an append-only move log in game_moves.
+ * A move appends one game_moves row; every SNAPSHOT_INTERVAL plies, and on any other change,
+ * the full state is rewritten along with the ply it reflects. Loading decodes the snapshot
+ * and replays the logged moves made after it. The finished column lets the game list be filtered
+ * and paged without decoding the state. It is set by the move that ends a game, which says so in
+ * its MoveRecord, or by a resignation, and never cleared, so no write has to generate moves to
+ * keep it current. The version column is bumped by every
+ * checked write, whose UPDATE only matches the row while it still has the version read.
+ */
 public class SQLGameDAO implements GameDAO {
-  private final Gson gson = new Gson();
+  static final int SNAPSHOT_INTERVAL = 20;
+  private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+  private static final String INSERT_GAME =
+          "INSERT INTO games (whiteUsername, blackUsername, gameName, gameState, snapshotPly, finished) VALUES (?, ?, ?, ?, ?, ?)";
 
   @Override
-  public void createGame(GameData game) throws DataAccessException {
-    String sql = "INSERT INTO games (whiteUsername, blackUsername, gameName, gameState) VALUES (?, ?, ?, ?)";
+  public int createGame(GameData game) throws DataAccessException {
     try (Connection conn = DatabaseManager.getConnection();
-         PreparedStatement ps = conn.prepareStatement(sql)) {
-      ps.setString(1, game.whiteUsername());
-      ps.setString(2, game.blackUsername());
-      ps.setString(3, game.gameName());
-      ps.setString(4, gson.toJson(game.game()));
+         PreparedStatement ps = conn.prepareStatement(INSERT_GAME, Statement.RETURN_GENERATED_KEYS)) {
+      bindNewGame(ps, game);
       ps.executeUpdate();
+      try (ResultSet keys = ps.getGeneratedKeys()) {
+        if (!keys.next()) {
+          throw new DataAccessException("Error: no game ID was generated");
+        }
+        return keys.getInt(1);
+      }
+    } catch (SQLException e) {
+      throw new DataAccessException(e.getMessage());
+    }
+  }
+
+  /**
+   * Inserts the games as one batch in one transaction, so either all of them exist afterwards
+   * or none do.
+   */
+  @Override
+  public List<Integer> createGames(List<GameData> games) throws DataAccessException {
+    if (games.isEmpty()) {
+      return List.of();
+    }
+    try (Connection conn = DatabaseManager.getConnection()) {
+      conn.setAutoCommit(false);
+      try (PreparedStatement ps = conn.prepareStatement(INSERT_GAME, Statement.RETURN_GENERATED_KEYS)) {
+        for (GameData game : games) {
+          bindNewGame(ps, game);
+          ps.addBatch();
+        }
+        ps.executeBatch();
+
+        List<Integer> ids = new ArrayList<>(games.size());
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+          while (keys.next()) {
+            ids.add(keys.getInt(1));
+          }
+        }
+        if (ids.size() != games.size()) {
+          throw new DataAccessException("Error: expected " + games.size() + " game IDs but got " + ids.size());
+        }
+        conn.commit();
+        return ids;
+      } catch (SQLException | DataAccessException e) {
+        conn.rollback();
+        throw e;
+      }
     } catch (SQLException e) {
       throw new DataAccessException(e.getMessage());
     }
@@ -29,21 +87,28 @@ public class SQLGameDAO implements GameDAO {
   @Override
   public GameData getGame(int gameId) throws DataAccessException {
     String sql = "SELECT * FROM games WHERE gameID = ?";
+    String movesSql = "SELECT * FROM game_moves WHERE gameID = ? AND ply > ? ORDER BY ply";
     try (Connection conn = DatabaseManager.getConnection();
          PreparedStatement ps = conn.prepareStatement(sql)) {
       ps.setInt(1, gameId);
+      GameData game;
       try (ResultSet rs = ps.executeQuery()) {
-        if (rs.next()) {
-          return new GameData(
-                  rs.getInt("gameID"),
-                  rs.getString("whiteUsername"),
-                  rs.getString("blackUsername"),
-                  rs.getString("gameName"),
-                  gson.fromJson(rs.getString("gameState"), ChessGame.class)
-          );
+        if (!rs.next()) {
+          return null;
         }
-        return null;
+        game = readGame(rs);
       }
+
+      try (PreparedStatement movesPs = conn.prepareStatement(movesSql)) {
+        movesPs.setInt(1, gameId);
+        movesPs.setInt(2, game.game().getPly());
+        try (ResultSet rs = movesPs.executeQuery()) {
+          while (rs.next()) {
+            replay(game.game(), rs);
+          }
+        }
+      }
+      return game;
     } catch (SQLException e) {
       throw new DataAccessException(e.getMessage());
     }
@@ -52,18 +117,74 @@ public class SQLGameDAO implements GameDAO {
   @Override
   public Collection<GameData> listGames() throws DataAccessException {
     String sql = "SELECT * FROM games";
-    Collection<GameData> games = new ArrayList<>();
+    String movesSql = """
+            SELECT m.* FROM game_moves m JOIN games g ON m.gameID = g.gameID
+            WHERE m.ply > g.snapshotPly ORDER BY m.gameID, m.ply
+            """;
+    Map<Integer, GameData> games = new LinkedHashMap<>();
+    try (Connection conn = DatabaseManager.getConnection()) {
+      try (PreparedStatement ps = conn.prepareStatement(sql);
+           ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          GameData game = readGame(rs);
+          games.put(game.gameID(), game);
+        }
+      }
+
+      try (PreparedStatement ps = conn.prepareStatement(movesSql);
+           ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          GameData game = games.get(rs.getInt("gameID"));
+          if (game != null) {
+            replay(game.game(), rs);
+          }
+        }
+      }
+      return new ArrayList<>(games.values());
+    } catch (SQLException e) {
+      throw new DataAccessException(e.getMessage());
+    }
+  }
+
+  @Override
+  public Collection<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+    StringBuilder sql = new StringBuilder(
+            "SELECT gameID, gameName, whiteUsername, blackUsername, finished FROM games WHERE gameID > ?");
+    if (query.openSeats()) {
+      sql.append(" AND (whiteUsername IS NULL OR blackUsername IS NULL)");
+    }
+    if (query.player() != null) {
+      sql.append(" AND (whiteUsername = ? OR blackUsername = ?)");
+    }
+    if (query.status() != null) {
+      sql.append(" AND finished = ?");
+    }
+    sql.append(" ORDER BY gameID LIMIT ?");
+
     try (Connection conn = DatabaseManager.getConnection();
-         PreparedStatement ps = conn.prepareStatement(sql);
-         ResultSet rs = ps.executeQuery()) {
-      while (rs.next()) {
-        games.add(new GameData(
-                rs.getInt("gameID"),
-                rs.getString("whiteUsername"),
-                rs.getString("blackUsername"),
-                rs.getString("gameName"),
-                gson.fromJson(rs.getString("gameState"), ChessGame.class)
-        ));
+         PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+      int index = 1;
+      ps.setInt(index++, query.afterGameId());
+      if (query.player() != null) {
+        ps.setString(index++, query.player());
+        ps.setString(index++, query.player());
+      }
+      if (query.status() != null) {
+        ps.setBoolean(index++, query.status() == GameSummary.Status.FINISHED);
+      }
+      ps.setInt(index, query.limit());
+
+      List<GameSummary> games = new ArrayList<>();
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          games.add(new GameSummary(
+                  rs.getInt("gameID"),
+                  rs.getString("gameName"),
+                  rs.getString("whiteUsername"),
+                  rs.getString("blackUsername"),
+                  rs.getBoolean("finished") ? GameSummary.Status.FINISHED : GameSummary.Status.ACTIVE
+          ));
+        }
       }
       return games;
     } catch (SQLException e) {
@@ -73,17 +194,74 @@ public class SQLGameDAO implements GameDAO {
 
   @Override
   public void updateGame(GameData game) throws DataAccessException {
-    String sql = "UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameState = ? WHERE gameID = ?";
+    try (Connection conn = DatabaseManager.getConnection()) {
+      writeSnapshot(conn, game, resigned(game));
+    } catch (SQLException e) {
+      throw new DataAccessException(e.getMessage());
+    }
+  }
+
+  @Override
+  public GameData updateGameIfVersion(GameData game) throws DataAccessException {
+    String sql = """
+            UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameState = ?, snapshotPly = ?,
+            finished = finished OR ?, version = version + 1 WHERE gameID = ? AND version = ?
+            """;
     try (Connection conn = DatabaseManager.getConnection();
          PreparedStatement ps = conn.prepareStatement(sql)) {
       ps.setString(1, game.whiteUsername());
       ps.setString(2, game.blackUsername());
       ps.setString(3, game.gameName());
-      ps.setString(4, gson.toJson(game.game()));
-      ps.setInt(5, game.gameID());
-      int rowsAffected = ps.executeUpdate();
-      if (rowsAffected == 0) {
-        throw new DataAccessException("Error: game not found");
+      ps.setBytes(4, GameStateCodec.encode(game.game()));
+      ps.setInt(5, game.game().getPly());
+      ps.setBoolean(6, resigned(game));
+      ps.setInt(7, game.gameID());
+      ps.setInt(8, game.version());
+      if (ps.executeUpdate() == 0) {
+        throw missOrConflict(conn, game.gameID());
+      }
+      return game.withVersion(game.version() + 1);
+    } catch (SQLException e) {
+      throw new DataAccessException(e.getMessage());
+    }
+  }
+
+  /**
+   * Bumps the version, appends the move and, when due, the snapshot in one transaction.
+   */
+  @Override
+  public GameData recordMove(GameData game, MoveRecord move) throws DataAccessException {
+    String versionSql = "UPDATE games SET version = version + 1 WHERE gameID = ? AND version = ?";
+    String sql = "INSERT INTO game_moves (gameID, ply, fromSquare, toSquare, promotion, positionHash) VALUES (?, ?, ?, ?, ?, ?)";
+    GameData updated = game.withVersion(game.version() + 1);
+    try (Connection conn = DatabaseManager.getConnection()) {
+      conn.setAutoCommit(false);
+      try {
+        try (PreparedStatement ps = conn.prepareStatement(versionSql)) {
+          ps.setInt(1, game.gameID());
+          ps.setInt(2, game.version());
+          if (ps.executeUpdate() == 0) {
+            throw missOrConflict(conn, game.gameID());
+          }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+          ps.setInt(1, game.gameID());
+          ps.setInt(2, move.ply());
+          ps.setInt(3, Bitboards.square(move.move().getStartPosition()));
+          ps.setInt(4, Bitboards.square(move.move().getEndPosition()));
+          ps.setInt(5, move.move().getPromotionPiece() == null ? 0 : move.move().getPromotionPiece().ordinal() + 1);
+          ps.setLong(6, move.positionHash());
+          ps.executeUpdate();
+        }
+        // A move that ends the game also snapshots, which keeps the finished column current.
+        if (move.ply() % SNAPSHOT_INTERVAL == 0 || move.finished()) {
+          writeSnapshot(conn, updated, move.finished());
+        }
+        conn.commit();
+        return updated;
+      } catch (SQLException | DataAccessException e) {
+        conn.rollback();
+        throw e;
       }
     } catch (SQLException e) {
       throw new DataAccessException(e.getMessage());
@@ -100,6 +278,78 @@ public class SQLGameDAO implements GameDAO {
       throw new DataAccessException(e.getMessage());
     }
   }
-}
 
+  private void writeSnapshot(Connection conn, GameData game, boolean finished) throws SQLException, DataAccessException {
+    String sql = "UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameState = ?, snapshotPly = ?, finished = finished OR ?, version = ? WHERE gameID = ?";
+    try (PreparedStatement ps = conn.prepareStatement(sql)) {
+      byte[] state = GameStateCodec.encode(game.game());
+      ps.setString(1, game.whiteUsername());
+      ps.setString(2, game.blackUsername());
+      ps.setString(3, game.gameName());
+      ps.setBytes(4, state);
+      ps.setInt(5, game.game().getPly());
+      ps.setBoolean(6, finished);
+      ps.setInt(7, game.version());
+      ps.setInt(8, game.gameID());
+      int rowsAffected = ps.executeUpdate();
+      if (rowsAffected == 0) {
+        throw new GameNotFoundException();
+      }
+    }
+  }
+
+  /**
+   * Tells apart the two reasons a version-checked UPDATE can match no row.
+   */
+  private static DataAccessException missOrConflict(Connection conn, int gameId) throws SQLException {
+    try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM games WHERE gameID = ?")) {
+      ps.setInt(1, gameId);
+      try (ResultSet rs = ps.executeQuery()) {
+        return rs.next() ? new VersionConflictException(gameId) : new GameNotFoundException();
+      }
+    }
+  }
 
+  private static void bindNewGame(PreparedStatement ps, GameData game) throws SQLException {
+    ps.setString(1, game.whiteUsername());
+    ps.setString(2, game.blackUsername());
+    ps.setString(3, game.gameName());
+    ps.setBytes(4, GameStateCodec.encode(game.game()));
+    ps.setInt(5, game.game().getPly());
+    ps.setBoolean(6, resigned(game));
+  }
+
+  private static boolean resigned(GameData game) {
+    return game.game().getTeamTurn() == ChessGame.TeamColor.RESIGNED;
+  }
+
+  private GameData readGame(ResultSet rs) throws SQLException, DataAccessException {
+    ChessGame game = GameStateCodec.decode(rs.getBytes("gameState"));
+    return new GameData(
+            rs.getInt("gameID"),
+            rs.getString("whiteUsername"),
+            rs.getString("blackUsername"),
+            rs.getString("gameName"),
+            game,
+            rs.getInt("version")
+    );
+  }
+
+  private void replay(ChessGame game, ResultSet rs) throws SQLException, DataAccessException {
+    int promotion = rs.getInt("promotion");
+    ChessMove move = ChessMove.of(position(rs.getInt("fromSquare")), position(rs.getInt("toSquare")),
+            promotion == 0 ? null : TYPES[promotion - 1]);
+    try {
+      game.makeMove(move);
+    } catch (InvalidMoveException e) {
+      throw new DataAccessException("Error: logged move " + rs.getInt("ply") + " cannot be replayed");
+    }
+    if (game.getPly() != rs.getInt("ply") || game.getZobristKey() != rs.getLong("positionHash")) {
+      throw new DataAccessException("Error: game history does not match move log at ply " + rs.getInt("ply"));
+    }
+  }
+
+  private static ChessPosition position(int square) {
+    return ChessPosition.of(Bitboards.row(square), Bitboards.column(square));
+  }
+}
@@ -0,0 +1,10 @@
+package dataaccess;
+
+/**
+ * A version-checked update found that the game had changed since the caller read it.
+ */
+public class VersionConflictException extends DataAccessException {
+  public VersionConflictException(int gameId) {
+    super("Error: game " + gameId + " was changed by another request");
+  }
+}
@@ -0,0 +1,157 @@
+package metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide metrics registry rendered in the Prometheus text format.
+ * <p>
+ * Metrics are identified by name plus label pairs given as alternating keys and values, e.g.
+ * {@code histogram("dao_query_seconds", "...", "dao", "game", "op", "getGame")}. Looking one up
+ * again returns the same instance, so hot paths can either keep a reference or look it up per use.
+ * Counters only go up and their names must end in _total; values that can also go down are gauges.
+ */
+public final class Metrics {
+  private enum Type {
+    COUNTER, GAUGE, HISTOGRAM
+  }
+
+  private record Family(String name, String help, Type type, Map<String, Object> series) {}
+
+  private static final Map<String, Family> FAMILIES = new ConcurrentHashMap<>();
+
+  private Metrics() {
+  }
+
+  public static Histogram histogram(String name, String help, String... labels) {
+    return (Histogram) series(name, help, Type.HISTOGRAM, labels, Histogram::new);
+  }
+
+  public static LongAdder counter(String name, String help, String... labels) {
+    return (LongAdder) series(name, help, Type.COUNTER, labels, LongAdder::new);
+  }
+
+  /**
+   * Registers a counter kept elsewhere, such as a cache's hit count, whose value is read at scrape
+   * time; registering the same series again replaces it.
+   */
+  public static void counter(String name, String help, Supplier<? extends Number> value, String... labels) {
+    family(name, help, Type.COUNTER).series().put(labelString(labels), value);
+  }
+
+  /**
+   * Registers a gauge whose value is read at scrape time; registering the same series again replaces it.
+   */
+  public static void gauge(String name, String help, Supplier<? extends Number> value, String... labels) {
+    family(name, help, Type.GAUGE).series().put(labelString(labels), value);
+  }
+
+  /**
+   * Wraps a DAO so every interface call is recorded in dao_query_seconds{dao, op}.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T timed(Class<T> type, String dao, T delegate) {
+    Map<Method, Histogram> timers = new ConcurrentHashMap<>();
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+      if (method.getDeclaringClass() == Object.class) {
+        return method.invoke(delegate, args);
+      }
+      Histogram timer = timers.computeIfAbsent(method, m -> histogram("dao_query_seconds",
+              "Time spent in data access calls", "dao", dao, "op", m.getName()));
+      long start = System.nanoTime();
+      try {
+        return method.invoke(delegate, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      } finally {
+        timer.observeSince(start);
+      }
+    });
+  }
+
+  /**
+   * @return every registered metric in the Prometheus text exposition format
+   */
+  public static String scrape() {
+    StringBuilder out = new StringBuilder();
+    for (Family family : new TreeMap<>(FAMILIES).values()) {
+      out.append("# HELP ").append(family.name()).append(' ').append(family.help()).append('\n');
+      out.append("# TYPE ").append(family.name()).append(' ').append(family.type().name().toLowerCase()).append('\n');
+      for (Map.Entry<String, Object> series : new TreeMap<>(family.series()).entrySet()) {
+        appendSeries(out, family, series.getKey(), series.getValue());
+      }
+    }
+    return out.toString();
+  }
+
+  /**
+   * Drops every registered metric; for tests.
+   */
+  static void reset() {
+    FAMILIES.clear();
+  }
+
+  private static Object series(String name, String help, Type type, String[] labels, Supplier<Object> create) {
+    return family(name, help, type).series().computeIfAbsent(labelString(labels), key -> create.get());
+  }
+
+  private static Family family(String name, String help, Type type) {
+    Family family = FAMILIES.computeIfAbsent(name, n -> new Family(n, help, type, new ConcurrentHashMap<>()));
+    if (family.type() != type) {
+      throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type());
+    }
+    if (type == Type.COUNTER && !name.endsWith("_total")) {
+      throw new IllegalArgumentException("Counter " + name + " must end in _total");
+    }
+    return family;
+  }
+
+  private static void appendSeries(StringBuilder out, Family family, String labels, Object value) {
+    switch (family.type()) {
+      case COUNTER -> appendSample(out, family.name(), labels,
+              value instanceof LongAdder adder ? adder.sum() : ((Supplier<?>) value).get());
+      case GAUGE -> appendSample(out, family.name(), labels, ((Supplier<?>) value).get());
+      case HISTOGRAM -> {
+        Histogram histogram = (Histogram) value;
+        long[] cumulative = histogram.cumulativeCounts();
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (int i = 0; i < Histogram.BUCKETS.length; i++) {
+          appendSample(out, family.name() + "_bucket", prefix + "le=\"" + Histogram.BUCKETS[i] + "\"", cumulative[i]);
+        }
+        appendSample(out, family.name() + "_bucket", prefix + "le=\"+Inf\"", cumulative[cumulative.length - 1]);
+        appendSample(out, family.name() + "_sum", labels, histogram.sumSeconds());
+        appendSample(out, family.name() + "_count", labels, cumulative[cumulative.length - 1]);
+      }
+    }
+  }
+
+  private static void appendSample(StringBuilder out, String name, String labels, Object value) {
+    out.append(name);
+    if (!labels.isEmpty()) {
+      out.append('{').append(labels).append('}');
+    }
+    out.append(' ').append(value).append('\n');
+  }
+
+  private static String labelString(String[] labels) {
+    if (labels.length % 2 != 0) {
+      throw new IllegalArgumentException("Labels must be key/value pairs");
+    }
+    StringBuilder out = new StringBuilder();
+    for (int i = 0; i < labels.length; i += 2) {
+      if (i > 0) {
+        out.append(',');
+      }
+      out.append(labels[i]).append("=\"")
+              .append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+              .append('"');
+    }
+    return out.toString();
+  }
+}
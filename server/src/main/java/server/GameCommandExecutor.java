@@ -0,0 +1,101 @@
+package server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks one at a time per game and in parallel across games.
+ * <p>
+ * Each game ID gets a mailbox; the first task submitted to an idle mailbox starts a virtual
+ * thread that drains it in submission order. Tasks for one game therefore never overlap, so
+ * the read-modify-write of a game needs no locking, while busy games do not hold up others.
+ * Mailboxes are dropped once drained and recreated on demand.
+ */
+public class GameCommandExecutor implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(GameCommandExecutor.class);
+
+  private static final class Mailbox {
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+  }
+
+  private final Map<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+  private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+
+  /**
+   * Queues a task behind every task already submitted for the same game.
+   *
+   * @throws RejectedExecutionException if the executor has been closed
+   */
+  public void submit(int gameId, Runnable task) {
+    Mailbox mailbox = mailboxes.compute(gameId, (id, existing) -> {
+      Mailbox target = existing != null ? existing : new Mailbox();
+      target.tasks.add(task);
+      return target;
+    });
+    schedule(gameId, mailbox);
+  }
+
+  /**
+   * @return number of games with queued or running tasks
+   */
+  public int activeGames() {
+    return mailboxes.size();
+  }
+
+  /**
+   * Stops accepting work and waits briefly for queued tasks to finish.
+   */
+  @Override
+  public void close() {
+    workers.shutdown();
+    try {
+      workers.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void schedule(int gameId, Mailbox mailbox) {
+    if (mailbox.scheduled.compareAndSet(false, true)) {
+      try {
+        workers.execute(() -> drain(gameId, mailbox));
+      } catch (RejectedExecutionException e) {
+        // Nothing will ever drain this mailbox, so drop it rather than leave it looking busy.
+        mailbox.scheduled.set(false);
+        mailbox.tasks.clear();
+        mailboxes.remove(gameId, mailbox);
+        throw e;
+      }
+    }
+  }
+
+  private void drain(int gameId, Mailbox mailbox) {
+    Runnable task;
+    while ((task = mailbox.tasks.poll()) != null) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        LOG.error("Command for game {} failed", gameId, e);
+      }
+    }
+    mailbox.scheduled.set(false);
+
+    // Submissions go through compute, so an empty mailbox removed here cannot gain a task afterwards.
+    mailboxes.computeIfPresent(gameId, (id, existing) ->
+            existing == mailbox && mailbox.tasks.isEmpty() && !mailbox.scheduled.get() ? null : existing);
+    if (!mailbox.tasks.isEmpty()) {
+      schedule(gameId, mailbox);
+    }
+  }
+}
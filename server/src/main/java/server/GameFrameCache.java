@@ -0,0 +1,69 @@
+package server;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import metrics.Histogram;
+import metrics.Metrics;
+import websocket.messages.LoadGame;
+import websocket.messages.ServerMessage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The latest serialized LOAD_GAME message for each game.
+ * <p>
+ * A frame is tagged with the ply, turn and Zobrist key of the state it was built from and is
+ * reused for as long as the game still matches, so clients joining or reconnecting to an
+ * unchanged game share one JSON string instead of each re-serializing the board.
+ */
+public class GameFrameCache {
+
+  private record Frame(int ply, ChessGame.TeamColor turn, long key, String json) {
+    boolean matches(ChessGame game) {
+      return ply == game.getPly() && turn == game.getTeamTurn() && key == game.getZobristKey();
+    }
+  }
+
+  private final Gson gson;
+  private final Map<Integer, Frame> frames = new ConcurrentHashMap<>();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public GameFrameCache(Gson gson) {
+    this.gson = gson;
+  }
+
+  public String loadGame(int gameId, ChessGame game) {
+    Frame frame = frames.get(gameId);
+    if (frame != null && frame.matches(game)) {
+      hits.incrementAndGet();
+      return frame.json();
+    }
+
+    misses.incrementAndGet();
+    long start = System.nanoTime();
+    String json = gson.toJson(new LoadGame(game));
+    serializeTimer(ServerMessage.ServerMessageType.LOAD_GAME).observeSince(start);
+    frames.put(gameId, new Frame(game.getPly(), game.getTeamTurn(), game.getZobristKey(), json));
+    return json;
+  }
+
+  static Histogram serializeTimer(ServerMessage.ServerMessageType type) {
+    return Metrics.histogram("gson_serialize_seconds", "Time spent serializing WebSocket messages",
+            "type", type.name());
+  }
+
+  public void invalidate(int gameId) {
+    frames.remove(gameId);
+  }
+
+  public long hits() {
+    return hits.get();
+  }
+
+  public long misses() {
+    return misses.get();
+  }
+}
@@ -4,10 +4,15 @@ import com.google.gson.Gson;
 import dataaccess.AlreadyTakenException;
 import dataaccess.BadRequestException;
 import dataaccess.DataAccessException;
+import dataaccess.GameQuery;
 import dataaccess.UnauthorizedException;
+import model.GameSummary;
 import service.*;
 import spark.Request;
 import spark.Response;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public class GameHandler {
@@ -38,18 +43,52 @@ public class GameHandler {
         return gson.toJson(Map.of("message", "Error: unauthorized"));
       }
 
-      var games = gameService.listGames(authToken);
+      var query = parseGameQuery(req);
+      var games = List.copyOf(gameService.listGameSummaries(authToken, query,
+              Boolean.parseBoolean(req.queryParams("mine"))));
+      var body = new LinkedHashMap<String, Object>();
+      body.put("games", games);
+      // A full page may have more after it; the client passes this back as ?after=.
+      if (games.size() == query.limit()) {
+        body.put("next", games.get(games.size() - 1).gameID());
+      }
       res.status(200);
-      return gson.toJson(Map.of("games", games));
+      return gson.toJson(body);
     } catch (UnauthorizedException e) {
       res.status(401);
       return gson.toJson(Map.of("message", e.getMessage()));
+    } catch (BadRequestException e) {
+      res.status(400);
+      return gson.toJson(Map.of("message", e.getMessage()));
     } catch (DataAccessException e) {
       res.status(500);
       return gson.toJson(Map.of("message", "Error: " + e.getMessage()));
     }
   }
 
+  /**
+   * Reads ?after=, ?limit=, ?open= and ?status= (active or finished) into a query.
+   */
+  private GameQuery parseGameQuery(Request req) throws BadRequestException {
+    try {
+      String after = req.queryParams("after");
+      String limit = req.queryParams("limit");
+      String status = req.queryParams("status");
+      var query = new GameQuery(
+              after == null ? 0 : Integer.parseInt(after),
+              limit == null ? GameQuery.DEFAULT_LIMIT : Integer.parseInt(limit),
+              Boolean.parseBoolean(req.queryParams("open")),
+              null,
+              status == null ? null : GameSummary.Status.valueOf(status.toUpperCase(Locale.ROOT)));
+      if (query.afterGameId() < 0 || query.limit() < 1 || query.limit() > GameQuery.MAX_LIMIT) {
+        throw new BadRequestException("Error: bad request");
+      }
+      return query;
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("Error: bad request");
+    }
+  }
+
   public Object handleCreateGame(Request req, Response res) {
     try {
       String authToken = req.headers("authorization");
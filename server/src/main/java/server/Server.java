@@ -2,30 +2,115 @@
 package server;
 
 import dataaccess.*;
+import metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import service.UserService;
 import service.GameService;
 import spark.Spark;
 
+import java.nio.file.Path;
+import java.util.Set;
+
 public class Server {
+    private static final Logger LOG = LoggerFactory.getLogger(Server.class);
+
+    private static final String REQUEST_START = "metrics.start";
+    private static final Set<String> ROUTES = Set.of("/db", "/user", "/session", "/game", "/metrics");
+
+    // Storage backend: "sql" (the default), "memory" or "journal".
+    private static final String STORAGE_PROPERTY = "chess.storage";
+    private static final String JOURNAL_PROPERTY = "chess.storage.journal";
+    private static final String SNAPSHOT_PROPERTY = "chess.storage.snapshot";
+    private static final String SNAPSHOT_INTERVAL_PROPERTY = "chess.storage.snapshotIntervalSeconds";
+
     private final UserService userService;
     private final GameService gameService;
     public static GameDAO gameDAO;  // Make static so handler can access
     public static AuthDAO authDAO;   // Make static so handler can access
+    private CachingGameDAO gameCache;
+    private MemorySnapshot snapshot;
+    private JournalGameDAO journal;
+    private GameCommandExecutor commandExecutor;
+    // Closes storage if the JVM exits without stop(); stop() takes it back out.
+    private final Thread shutdownHook = new Thread(this::closeStorage, "server-shutdown");
+    private boolean storageClosed;
 
     public Server() {
         try {
-            DatabaseInitializer.initialize();
-            var userDAO = new SQLUserDAO();
-            authDAO = new SQLAuthDAO();    // Assign to static field
-            gameDAO = new SQLGameDAO();    // Assign to static field
+            String storage = System.getProperty(STORAGE_PROPERTY, "sql");
+            UserDAO userDAO = switch (storage) {
+                case "sql" -> useSqlStorage();
+                case "memory" -> useMemoryStorage(false);
+                case "journal" -> useMemoryStorage(true);
+                default -> throw new DataAccessException("Error: unknown " + STORAGE_PROPERTY + " '" + storage + "'");
+            };
+            LOG.info("Using {} storage", storage);
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+            WebSocketHandler.registerGauges();
             userService = new UserService(userDAO, authDAO);
             gameService = new GameService(userDAO, gameDAO, authDAO);
         } catch (DataAccessException e) {
-            System.err.println("Failed to initialize server: " + e.getMessage());
+            LOG.error("Failed to initialize server", e);
             throw new RuntimeException(e);
         }
     }
 
+    private UserDAO useSqlStorage() throws DataAccessException {
+        DatabaseInitializer.initialize();
+        var cachingAuthDAO = new CachingAuthDAO(Metrics.timed(AuthDAO.class, "auth", new SQLAuthDAO()));
+        authDAO = cachingAuthDAO;    // Assign to static field
+        gameCache = new CachingGameDAO(Metrics.timed(GameDAO.class, "game", new SQLGameDAO()));
+        gameDAO = gameCache;      // Assign to static field
+        registerGauges(cachingAuthDAO, gameCache);
+        return Metrics.timed(UserDAO.class, "user", new SQLUserDAO());
+    }
+
+    /**
+     * Keeps users and tokens in memory, with no caches in front since there is nothing slower
+     * behind them. Games are kept in memory too, or with journal set in the file named by
+     * chess.storage.journal (default chess.journal). Setting chess.storage.snapshot to a file
+     * path saves the in-memory data there every chess.storage.snapshotIntervalSeconds and loads
+     * it back on the next start.
+     */
+    private UserDAO useMemoryStorage(boolean journal) throws DataAccessException {
+        var users = new MemoryUserDAO();
+        var auths = new MemoryAuthDAO();
+        MemoryGameDAO memoryGames = null;
+        GameDAO games;
+        if (journal) {
+            this.journal = new JournalGameDAO(Path.of(System.getProperty(JOURNAL_PROPERTY, "chess.journal")));
+            Metrics.gauge("game_journal_bytes", "Bytes used by the game journal", this.journal::journalBytes);
+            games = this.journal;
+        } else {
+            memoryGames = new MemoryGameDAO();
+            games = memoryGames;
+        }
+
+        String snapshotFile = System.getProperty(SNAPSHOT_PROPERTY);
+        if (snapshotFile != null) {
+            snapshot = new MemorySnapshot(Path.of(snapshotFile), users, auths, memoryGames);
+            snapshot.load();
+            snapshot.start(Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, 30));
+        }
+        authDAO = Metrics.timed(AuthDAO.class, "auth", auths);
+        gameDAO = Metrics.timed(GameDAO.class, "game", games);
+        return Metrics.timed(UserDAO.class, "user", users);
+    }
+
+    private static void registerGauges(CachingAuthDAO cachingAuthDAO, CachingGameDAO cachingGameDAO) {
+        Metrics.counter("auth_cache_hits_total", "Auth lookups served from the cache", cachingAuthDAO::hits);
+        Metrics.counter("auth_cache_misses_total", "Auth lookups that went to the database", cachingAuthDAO::misses);
+        Metrics.gauge("game_pending_writes", "Changed games not yet written to the database",
+                cachingGameDAO::pendingWrites);
+        Metrics.gauge("db_pool_active_connections", "Database connections currently borrowed",
+                () -> DatabaseManager.getPoolStats().active());
+        Metrics.gauge("db_pool_idle_connections", "Database connections idle in the pool",
+                () -> DatabaseManager.getPoolStats().idle());
+        Metrics.counter("db_pool_acquire_timeouts_total", "Connection requests that timed out",
+                () -> DatabaseManager.getPoolStats().timeouts());
+    }
+
     public int run(int desiredPort) {
         Spark.port(desiredPort);
         Spark.staticFiles.location("web");
@@ -38,14 +123,14 @@ public class Server {
     }
 
     private void configureWebSocket() {
-        System.out.println("🔧 [SERVER] Configuring WebSocket endpoint at /ws");
+        // Each server gets its own executor, since stop() closes it for good.
+        commandExecutor = new GameCommandExecutor();
+        Metrics.gauge("ws_busy_game_mailboxes", "Games with commands queued or running", commandExecutor::activeGames);
         try {
-            Spark.webSocket("/ws", WebSocketHandler.class);
-            System.out.println("✅ [SERVER] WebSocket endpoint configured successfully");
-            System.out.println("📝 [SERVER] Handler class: " + WebSocketHandler.class.getName());
+            Spark.webSocket("/ws", new WebSocketHandler(commandExecutor));
+            LOG.info("WebSocket endpoint configured at /ws");
         } catch (Exception e) {
-            System.err.println("❌ [SERVER] WebSocket configuration failed:");
-            e.printStackTrace();
+            LOG.error("WebSocket configuration failed", e);
             throw new RuntimeException("Failed to configure WebSocket", e);
         }
     }
@@ -60,6 +145,23 @@ public class Server {
             return "OK";
         });
 
+        // Time every request, including ones that end in an exception; the route label is only
+        // taken from the fixed routes below so unknown paths cannot grow the series count.
+        Spark.before((request, response) -> request.attribute(REQUEST_START, System.nanoTime()));
+        Spark.afterAfter((request, response) -> {
+            Long start = request.attribute(REQUEST_START);
+            if (start != null) {
+                String route = ROUTES.contains(request.pathInfo()) ? request.pathInfo() : "other";
+                Metrics.histogram("http_request_duration_seconds", "HTTP request latency",
+                        "method", request.requestMethod(), "route", route,
+                        "status", String.valueOf(response.status())).observeSince(start);
+            }
+        });
+        Spark.get("/metrics", (request, response) -> {
+            response.type("text/plain; version=0.0.4");
+            return Metrics.scrape();
+        });
+
         var userHandler = new UserHandler(userService);
         var gameHandler = new GameHandler(gameService);
 
@@ -75,6 +177,35 @@ public class Server {
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
+        if (commandExecutor != null) {
+            // Lets queued commands finish before the storage behind them is closed.
+            commandExecutor.close();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down, so the hook is running or about to.
+        }
+        closeStorage();
+    }
+
+    /**
+     * Writes out and closes this server's storage; runs once, from stop() or the shutdown hook.
+     */
+    private synchronized void closeStorage() {
+        if (storageClosed) {
+            return;
+        }
+        storageClosed = true;
+        if (gameCache != null) {
+            gameCache.close();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (snapshot != null) {
+            snapshot.close();
+        }
     }
 }
 
@@ -0,0 +1,158 @@
+package server;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking outbound messages for WebSocket sessions.
+ * <p>
+ * Each session has a bounded queue and at most one asynchronous write in flight; the write
+ * callback starts the next one. A broadcast therefore only enqueues, and one slow socket
+ * cannot hold up the game or the other sessions. When a session's queue is full the overflow
+ * policy either drops the new message or disconnects the session.
+ */
+public class SessionSender {
+  private static final Logger LOG = LoggerFactory.getLogger(SessionSender.class);
+
+  public static final int DEFAULT_MAX_QUEUED = 256;
+
+  public enum OverflowPolicy {
+    DROP,
+    DISCONNECT
+  }
+
+  public record Stats(int sessions, int queued, int maxQueued, long sent, long dropped, long disconnected) {}
+
+  private final class Outbox implements WriteCallback {
+    private final Session session;
+    private final Queue<String> queue = new ArrayDeque<>();
+    private boolean writing;
+
+    private Outbox(Session session) {
+      this.session = session;
+    }
+
+    private void send(String message) {
+      boolean full;
+      synchronized (this) {
+        if (!writing) {
+          writing = true;
+          full = false;
+        } else if (queue.size() < maxQueued) {
+          queue.add(message);
+          maxDepth.accumulateAndGet(queue.size(), Math::max);
+          queued.incrementAndGet();
+          return;
+        } else {
+          full = true;
+        }
+      }
+      if (full) {
+        overflow(this);
+      } else {
+        write(message);
+      }
+    }
+
+    private void write(String message) {
+      try {
+        session.getRemote().sendString(message, this);
+      } catch (RuntimeException e) {
+        writeFailed(e);
+      }
+    }
+
+    @Override
+    public void writeSuccess() {
+      sent.incrementAndGet();
+      String next;
+      synchronized (this) {
+        next = queue.poll();
+        if (next == null) {
+          writing = false;
+          return;
+        }
+      }
+      queued.decrementAndGet();
+      write(next);
+    }
+
+    @Override
+    public void writeFailed(Throwable cause) {
+      LOG.debug("Failed to send to session {}: {}", session.hashCode(), cause.getMessage());
+      discard();
+    }
+
+    private void discard() {
+      synchronized (this) {
+        queued.addAndGet(-queue.size());
+        queue.clear();
+        writing = false;
+      }
+    }
+  }
+
+  private final Map<Session, Outbox> outboxes = new ConcurrentHashMap<>();
+  private final int maxQueued;
+  private final OverflowPolicy policy;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger maxDepth = new AtomicInteger();
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong disconnected = new AtomicLong();
+
+  public SessionSender() {
+    this(DEFAULT_MAX_QUEUED, OverflowPolicy.DISCONNECT);
+  }
+
+  public SessionSender(int maxQueued, OverflowPolicy policy) {
+    this.maxQueued = maxQueued;
+    this.policy = policy;
+  }
+
+  /**
+   * Queues a message for the session without waiting for it to be written.
+   */
+  public void send(Session session, String message) {
+    if (!session.isOpen()) {
+      return;
+    }
+    outboxes.computeIfAbsent(session, Outbox::new).send(message);
+  }
+
+  /**
+   * Drops anything still queued for a session that has closed.
+   */
+  public void remove(Session session) {
+    Outbox outbox = outboxes.remove(session);
+    if (outbox != null) {
+      outbox.discard();
+    }
+  }
+
+  public Stats stats() {
+    return new Stats(outboxes.size(), queued.get(), maxDepth.get(), sent.get(), dropped.get(), disconnected.get());
+  }
+
+  private void overflow(Outbox outbox) {
+    if (policy == OverflowPolicy.DROP) {
+      dropped.incrementAndGet();
+      return;
+    }
+    // The client missed updates it cannot recover from; make it reconnect and reload instead.
+    disconnected.incrementAndGet();
+    outboxes.remove(outbox.session);
+    outbox.discard();
+    outbox.session.close(StatusCode.POLICY_VIOLATION, "Too many unsent messages");
+  }
+}
@@ -3,29 +3,58 @@ package server;
 import chess.ChessGame;
 import chess.InvalidMoveException;
 import com.google.gson.*;
+import dataaccess.CachingAuthDAO;
 import dataaccess.DataAccessException;
+import dataaccess.VersionConflictException;
+import metrics.Histogram;
+import metrics.Metrics;
 import model.AuthData;
 import model.GameData;
+import model.MoveRecord;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import service.GameService;
 import websocket.commands.Leave;
 import websocket.commands.MakeMove;
 import websocket.commands.Resign;
+import websocket.commands.Sync;
 import websocket.commands.UserGameCommand;
 import websocket.messages.Error;
-import websocket.messages.LoadGame;
+import websocket.messages.MoveApplied;
 import websocket.messages.Notification;
+import websocket.messages.ServerMessage;
 
-import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @WebSocket
 public class WebSocketHandler {
-  private static final Map<Integer, Map<Session, String>> GAME_CONNECTIONS=new ConcurrentHashMap<>();
+  private static final Logger LOG = LoggerFactory.getLogger(WebSocketHandler.class);
+  private static final Map<Integer, Map<Session, String>> GAME_CONNECTIONS = new ConcurrentHashMap<>();
+  // Reverse of GAME_CONNECTIONS, so a closing socket only visits the games it joined.
+  private static final Map<Session, Set<Integer>> SESSION_GAMES = new ConcurrentHashMap<>();
+  // Identity checked at CONNECT, reused by later commands until a token is deleted here or the
+  // binding is older than the auth cache TTL, which catches deletions made on another node.
+  private static final Map<Session, SessionBinding> SESSION_AUTH = new ConcurrentHashMap<>();
+  private static final SessionSender SENDER = new SessionSender();
+  private static final GameFrameCache FRAMES = new GameFrameCache(new Gson());
+  // Sessions that connected with ?deltas=true and receive MOVE_APPLIED instead of LOAD_GAME after a move.
+  private static final Set<Session> DELTA_SESSIONS = ConcurrentHashMap.newKeySet();
   private final Gson gson;
+  private final GameCommandExecutor executor;
 
-  public WebSocketHandler() {
+  private static final long BINDING_TTL_NANOS=TimeUnit.MILLISECONDS.toNanos(CachingAuthDAO.DEFAULT_TTL_MILLIS);
+
+  private record SessionBinding(AuthData auth, long authVersion, long checkedAt) {}
+
+  public WebSocketHandler(GameCommandExecutor executor) {
+    this.executor=executor;
     this.gson=new GsonBuilder().registerTypeAdapter(UserGameCommand.class, (JsonDeserializer<UserGameCommand>) (json, typeOfT, context) -> {
       JsonObject obj=json.getAsJsonObject();
       String commandType=obj.get("commandType").getAsString();
@@ -37,6 +66,7 @@ public class WebSocketHandler {
         case "CONNECT" -> new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID);
         case "LEAVE" -> new Leave(authToken, gameID);
         case "RESIGN" -> new Resign(authToken, gameID);
+        case "SYNC" -> new Sync(authToken, gameID);
         default -> throw new JsonParseException("Unknown command type: " + commandType);
       };
     }).create();
@@ -45,136 +75,193 @@ public class WebSocketHandler {
 
   @OnWebSocketMessage
   public void onMessage(Session session, String message) {
-    System.out.println("\n⚡ [DEBUG] onWebSocketText triggered with message: " + message);
+    LOG.debug("Received message: {}", message);
+    UserGameCommand command;
+    try {
+      command=gson.fromJson(message, UserGameCommand.class);
+    } catch (Exception e) {
+      LOG.warn("Failed to parse message: {}", e.getMessage());
+      sendError(session, "Error: " + e.getMessage());
+      return;
+    }
+
+    // Commands for one game run one at a time, so each sees the previous one's changes.
     try {
-      UserGameCommand command=gson.fromJson(message, UserGameCommand.class);
-      System.out.println("🔄 [WS-MESSAGE] Parsed command type: " + command.getCommandType());
+      executor.submit(command.getGameID(), () -> processCommand(session, command));
+    } catch (RejectedExecutionException e) {
+      sendError(session, "Error: server is shutting down");
+    }
+  }
 
-      AuthData auth=Server.authDAO.getAuth(command.getAuthToken());
+  private void processCommand(Session session, UserGameCommand command) {
+    long start=System.nanoTime();
+    try {
+      long authVersion=Server.authDAO.deletionVersion();
+      AuthData auth=boundAuth(session, command, authVersion);
       if (auth == null) {
-        System.out.println("❌ [WS-MESSAGE] Invalid auth token: " + command.getAuthToken().toString());
-
+        auth=Server.authDAO.getAuth(command.getAuthToken());
+        if (auth != null) {
+          // Still valid after a deletion or the TTL; carry the binding forward.
+          AuthData revalidated=auth;
+          SESSION_AUTH.computeIfPresent(session, (s, binding) ->
+                  binding.auth().authToken().equals(revalidated.authToken())
+                          ? new SessionBinding(revalidated, authVersion, System.nanoTime()) : binding);
+        } else {
+          // The bound token is gone, so the binding must not outlive it.
+          SESSION_AUTH.computeIfPresent(session, (s, binding) ->
+                  binding.auth().authToken().equals(command.getAuthToken()) ? null : binding);
+        }
+      }
+      stage(command, "auth").observeSince(start);
+      if (auth == null) {
+        LOG.debug("Rejected {} for game {}: invalid auth token", command.getCommandType(), command.getGameID());
         sendError(session, "Error: unauthorized");
         return;
       }
 
-      GameData game=null;
-      try {
-        game=Server.gameDAO.getGame(command.getGameID());
+      // A write that finds the game changed since it was loaded re-runs the command on a fresh copy.
+      for (int attempt=1; ; attempt++) {
+        GameData game=loadGame(session, command);
         if (game == null) {
-          System.out.println("❌ [WS-MESSAGE] Game not found: " + command.getGameID());
-          sendError(session, "Error: game not found");
           return;
         }
-      } catch (Exception e) {
-        System.out.println("❌ [WS-MESSAGE] Error retrieving game: " + e.getMessage());
-        sendError(session, "Error: game not found");
-        return;
-      }
-
-      switch (command.getCommandType()) {
-        case CONNECT -> {
-          System.out.println("🔄 [WS-MESSAGE] Processing CONNECT command");
-          handleConnect(session, command, auth, game);
-        }
-        case MAKE_MOVE -> {
-          System.out.println("🔄 [WS-MESSAGE] Processing MAKE_MOVE command");
-          handleMove(session, command, auth, game);
-        }
-        case RESIGN -> {
-          System.out.println("🔄 [WS-MESSAGE] Processing RESIGN command");
-          handleResign(session, command, auth, game);
-        }
-        case LEAVE -> {
-          System.out.println("🔄 [WS-MESSAGE] Processing LEAVE command");
-          handleLeave(session, command, auth, game);
-        }
-        default -> {
-          System.out.println("❌ [WS-MESSAGE] Unknown command type: " + command.getCommandType());
-          sendError(session, "Error: unknown command type");
+        try {
+          dispatch(session, command, auth, authVersion, game);
+          return;
+        } catch (VersionConflictException e) {
+          GameService.conflicts("ws_" + command.getCommandType().name().toLowerCase()).increment();
+          if (attempt == GameService.MAX_UPDATE_ATTEMPTS) {
+            LOG.warn("Giving up on {} for game {} after {} conflicts", command.getCommandType(), command.getGameID(), attempt);
+            sendError(session, "Error: game is busy, try again");
+            return;
+          }
+          LOG.debug("{} for game {} hit a version conflict, retrying", command.getCommandType(), command.getGameID());
         }
       }
     } catch (Exception e) {
-      System.err.println("❌ [WS-MESSAGE] Error processing message: ");
-      e.printStackTrace();
+      LOG.error("Failed to process {} for game {}", command.getCommandType(), command.getGameID(), e);
       sendError(session, "Error: " + e.getMessage());
+    } finally {
+      Metrics.histogram("ws_command_seconds", "Total time to handle a WebSocket command",
+              "command", command.getCommandType().name()).observeSince(start);
+    }
+  }
+
+  /**
+   * @return the game, or null after telling the session it could not be loaded
+   */
+  private GameData loadGame(Session session, UserGameCommand command) {
+    long loadStart=System.nanoTime();
+    try {
+      GameData game=Server.gameDAO.getGame(command.getGameID());
+      stage(command, "load").observeSince(loadStart);
+      if (game == null) {
+        LOG.debug("Game not found: {}", command.getGameID());
+        sendError(session, "Error: game not found");
+      }
+      return game;
+    } catch (Exception e) {
+      LOG.warn("Failed to load game {}: {}", command.getGameID(), e.getMessage());
+      sendError(session, "Error: game not found");
+      return null;
+    }
+  }
+
+  private void dispatch(Session session, UserGameCommand command, AuthData auth, long authVersion, GameData game)
+          throws VersionConflictException {
+    LOG.debug("Processing {} from {} for game {}", command.getCommandType(), auth.username(), command.getGameID());
+    switch (command.getCommandType()) {
+      case CONNECT -> {
+        handleConnect(session, command, auth, game);
+        SESSION_AUTH.put(session, new SessionBinding(auth, authVersion, System.nanoTime()));
+      }
+      case MAKE_MOVE -> {
+        handleMove(session, command, auth, game);
+      }
+      case RESIGN -> {
+        handleResign(session, command, auth, game);
+      }
+      case LEAVE -> {
+        handleLeave(session, command, auth, game);
+      }
+      case SYNC -> {
+        SENDER.send(session, FRAMES.loadGame(game.gameID(), game.game()));
+      }
+      default -> {
+        LOG.warn("Unknown command type: {}", command.getCommandType());
+        sendError(session, "Error: unknown command type");
+      }
+    }
+  }
+
+  private static Histogram stage(UserGameCommand command, String stage) {
+    return Metrics.histogram("ws_command_stage_seconds", "Time spent in each stage of a WebSocket command",
+            "command", command.getCommandType().name(), "stage", stage);
+  }
+
+  /**
+   * @return the identity bound at CONNECT if this command comes from the same token for a game the
+   * session joined, no token has been deleted since and the binding was checked within the auth
+   * cache TTL, otherwise null so the token is looked up again
+   */
+  private AuthData boundAuth(Session session, UserGameCommand command, long authVersion) {
+    SessionBinding binding=SESSION_AUTH.get(session);
+    if (binding == null || authVersion == -1 || binding.authVersion() != authVersion
+            || System.nanoTime() - binding.checkedAt() > BINDING_TTL_NANOS
+            || !binding.auth().authToken().equals(command.getAuthToken())) {
+      return null;
     }
+    Set<Integer> games=SESSION_GAMES.get(session);
+    return games != null && games.contains(command.getGameID()) ? binding.auth() : null;
   }
 
   @OnWebSocketConnect
   public void onWebSocketConnect(Session session) {
-    System.out.println("\n⚡ [DEBUG] onWebSocketConnect triggered");
-    System.out.println("\n🔌 [WS-HANDLER] New WebSocket connection from: " + session.getRemoteAddress());
-
-    System.out.println("🔌 [WS-HANDLER] Session initialized with ID: " + session.hashCode());
+    LOG.debug("New WebSocket connection from {}", session.getRemoteAddress());
+    if (session.getUpgradeRequest().getParameterMap().getOrDefault("deltas", List.of()).contains("true")) {
+      DELTA_SESSIONS.add(session);
+    }
   }
 
 
   private void handleConnect(Session session, UserGameCommand command, AuthData auth, GameData game) {
     try {
-      System.out.println("\n🔄 [CONNECT] Starting connection for user: " + auth.username());
-      System.out.println("🔄 [CONNECT] Game ID: " + command.getGameID());
-      System.out.println("🔄 [CONNECT] Game state: " + (game != null ? "found" : "null"));
-
-      Map<Session, String> gameSessions=GAME_CONNECTIONS.computeIfAbsent(command.getGameID(), k -> new ConcurrentHashMap<>());
-      gameSessions.put(session, auth.username());
-      System.out.println("✅ [CONNECT] Added to game connections. Current players in game: " + gameSessions.size());
-
-
-      LoadGame loadGameMessage=new LoadGame(game.game());
-      String loadGameJson=gson.toJson(loadGameMessage);
-      System.out.println("📤 [CONNECT] Sending LOAD_GAME message: " + loadGameJson);
-
-      try {
-        session.getRemote().sendString(loadGameJson);
-        System.out.println("✅ [CONNECT] LOAD_GAME message sent successfully");
-      } catch (Exception e) {
-        System.err.println("❌ [CONNECT] Failed to send LOAD_GAME message: " + e.getMessage());
-        e.printStackTrace();
-        throw e;
-      }
+      Map<Session, String> gameSessions=addConnection(command.getGameID(), session, auth.username());
+      LOG.debug("Game {} now has {} connected sessions", command.getGameID(), gameSessions.size());
+
+      String loadGameJson=FRAMES.loadGame(game.gameID(), game.game());
+      LOG.trace("Sending LOAD_GAME: {}", loadGameJson);
+      SENDER.send(session, loadGameJson);
 
       // Determine player type and create notification
       String notificationMessage;
       if (auth.username().equals(game.whiteUsername())) {
         notificationMessage=String.format("%s joined as WHITE player", auth.username());
-        System.out.println("👤 [CONNECT] User is WHITE player");
       } else if (auth.username().equals(game.blackUsername())) {
         notificationMessage=String.format("%s joined as BLACK player", auth.username());
-        System.out.println("👤 [CONNECT] User is BLACK player");
       } else {
         notificationMessage=String.format("%s joined as an observer", auth.username());
-        System.out.println("👀 [CONNECT] User is OBSERVER");
       }
 
       // Broadcast notification
-      System.out.println("📢 [CONNECT] Broadcasting notification: " + notificationMessage);
-      try {
-        broadcastNotification(command.getGameID(), notificationMessage, session);
-        System.out.println("✅ [CONNECT] Notification broadcast complete");
-      } catch (Exception e) {
-        System.err.println("❌ [CONNECT] Failed to broadcast notification: " + e.getMessage());
-        e.printStackTrace();
-        throw e;
-      }
-
-      System.out.println("✅ [CONNECT] Connection handling completed successfully\n");
-
+      broadcastNotification(command.getGameID(), notificationMessage, session);
     } catch (Exception e) {
-      System.err.println("❌ [CONNECT] Error during connect: " + e.getMessage());
-      e.printStackTrace();
+      LOG.error("CONNECT to game {} failed", command.getGameID(), e);
       sendError(session, "Error during connect: " + e.getMessage());
     }
   }
 
-  private void handleMove(Session session, UserGameCommand command, AuthData auth, GameData game) {
+  private void handleMove(Session session, UserGameCommand command, AuthData auth, GameData game)
+          throws VersionConflictException {
     if (!(command instanceof MakeMove moveCommand)) {
       sendError(session, "Error: invalid move command");
       return;
     }
 
     // Validate game state and player permissions
+    long start = System.nanoTime();
     if (!isValidMoveAttempt(session, auth, game)) {
+      stage(command, "validate").observeSince(start);
       return;
     }
 
@@ -182,16 +269,24 @@ public class WebSocketHandler {
     try {
       // Make the move and update game state
       chessGame.makeMove(moveCommand.getMove());
-      Server.gameDAO.updateGame(game);
+      stage(command, "validate").observeSince(start);
+
+      start = System.nanoTime();
+      game = Server.gameDAO.recordMove(game, MoveRecord.after(chessGame, moveCommand.getMove()));
+      stage(command, "persist").observeSince(start);
 
       // Send updates to all connected clients
+      start = System.nanoTime();
       sendGameUpdates(command.getGameID(), game, auth, moveCommand);
 
       // Check and handle game state changes
       handlePostMoveGameState(command.getGameID(), chessGame);
+      stage(command, "broadcast").observeSince(start);
 
     } catch (InvalidMoveException e) {
       sendError(session, "Error: invalid move");
+    } catch (VersionConflictException e) {
+      throw e;
     } catch (Exception e) {
       sendError(session, "Error: " + e.getMessage());
     }
@@ -221,8 +316,7 @@ public class WebSocketHandler {
     }
 
     // Check if game is in checkmate
-    if (chessGame.isInCheckmate(ChessGame.TeamColor.WHITE) ||
-            chessGame.isInCheckmate(ChessGame.TeamColor.BLACK)) {
+    if (chessGame.getGameStatus().isCheckmate()) {
       sendError(session, "No moves to be made.");
       return false;
     }
@@ -235,20 +329,21 @@ public class WebSocketHandler {
             (game.getTeamTurn() != ChessGame.TeamColor.BLACK && isBlack));
   }
 
-  private void sendGameUpdates(int gameId, GameData game, AuthData auth, MakeMove moveCommand) throws IOException {
+  private void sendGameUpdates(int gameId, GameData game, AuthData auth, MakeMove moveCommand) {
     Map<Session, String> gameSessions = GAME_CONNECTIONS.get(gameId);
     if (gameSessions == null) {
       return;
     }
 
-    LoadGame loadGame = new LoadGame(game.game());
-    String loadGameJson = gson.toJson(loadGame);
+    String loadGameJson = null;
+    String moveAppliedJson = toJson(new MoveApplied(moveCommand.getMove(),
+            game.game().getZobristKey(), game.game().getPly()));
 
     String moveNotification = String.format("%s moved from %s to %s",
             auth.username(),
             moveCommand.getMove().getStartPosition(),
             moveCommand.getMove().getEndPosition());
-    String notificationJson = gson.toJson(new Notification(moveNotification));
+    String notificationJson = toJson(new Notification(moveNotification));
 
     boolean isWhiteMove = auth.username().equals(game.whiteUsername());
     for (Map.Entry<Session, String> entry : gameSessions.entrySet()) {
@@ -256,16 +351,25 @@ public class WebSocketHandler {
         continue;
       }
 
+      String stateJson;
+      if (DELTA_SESSIONS.contains(entry.getKey())) {
+        stateJson = moveAppliedJson;
+      } else {
+        if (loadGameJson == null) {
+          loadGameJson = FRAMES.loadGame(gameId, game.game());
+        }
+        stateJson = loadGameJson;
+      }
       sendUpdatesToClient(entry.getKey(), entry.getValue(), game,
-              loadGameJson, notificationJson, isWhiteMove);
+              stateJson, notificationJson, isWhiteMove);
     }
   }
 
   private void sendUpdatesToClient(Session clientSession, String username,
-                                   GameData game, String loadGameJson,
-                                   String notificationJson, boolean isWhiteMove) throws IOException {
+                                   GameData game, String stateJson,
+                                   String notificationJson, boolean isWhiteMove) {
     // Always send game state update
-    clientSession.getRemote().sendString(loadGameJson);
+    SENDER.send(clientSession, stateJson);
 
     boolean isObserver = !username.equals(game.whiteUsername()) &&
             !username.equals(game.blackUsername());
@@ -274,24 +378,26 @@ public class WebSocketHandler {
             (username.equals(game.whiteUsername()) || isObserver);
 
     if (shouldNotify) {
-      clientSession.getRemote().sendString(notificationJson);
+      SENDER.send(clientSession, notificationJson);
     }
   }
 
   private void handlePostMoveGameState(int gameId, ChessGame chessGame) {
     ChessGame.TeamColor currentTeam = chessGame.getTeamTurn();
+    ChessGame.GameStatus status = chessGame.getGameStatus();
 
-    if (chessGame.isInCheckmate(currentTeam)) {
+    if (status.isCheckmate()) {
       ChessGame.TeamColor winner = (currentTeam == ChessGame.TeamColor.WHITE) ?
               ChessGame.TeamColor.BLACK :
               ChessGame.TeamColor.WHITE;
       broadcastNotification(gameId, String.format("Checkmate! %s wins!", winner), null);
-    } else if (chessGame.isInCheck(currentTeam)) {
+    } else if (status.inCheck()) {
       broadcastNotification(gameId, String.format("%s is in check!", currentTeam), null);
     }
   }
 
-  private void handleResign(Session session, UserGameCommand command, AuthData auth, GameData game) {
+  private void handleResign(Session session, UserGameCommand command, AuthData auth, GameData game)
+          throws VersionConflictException {
     if (!auth.username().equals(game.whiteUsername()) &&
             !auth.username().equals(game.blackUsername())) {
       sendError(session, "Error: only players can resign");
@@ -304,34 +410,47 @@ public class WebSocketHandler {
     }
 
     game.game().setTeamTurn(ChessGame.TeamColor.RESIGNED);
-    System.out.println("Team turn: " + game.game().getTeamTurn().toString());
-    broadcastNotification(command.getGameID(),
-            String.format("%s resigned from the game", auth.username()), null);
-
+    // Stored before anyone is told, so a version conflict can re-run the resign cleanly.
     try {
-      Server.gameDAO.updateGame(game);
+      long start = System.nanoTime();
+      Server.gameDAO.updateGameIfVersion(game);
+      stage(command, "persist").observeSince(start);
+    } catch (VersionConflictException e) {
+      throw e;
     } catch (DataAccessException e) {
       throw new RuntimeException(e);
     }
+
+    FRAMES.invalidate(game.gameID());
+    LOG.debug("{} resigned game {}", auth.username(), game.gameID());
+    long start = System.nanoTime();
+    broadcastNotification(command.getGameID(),
+            String.format("%s resigned from the game", auth.username()), null);
+    stage(command, "broadcast").observeSince(start);
   }
 
 
-  private void handleLeave(Session session, UserGameCommand command, AuthData auth, GameData game) {
-    Map<Session, String> gameSessions = GAME_CONNECTIONS.get(command.getGameID());
-    if (gameSessions != null) {
-      gameSessions.remove(session);
+  private void handleLeave(Session session, UserGameCommand command, AuthData auth, GameData game)
+          throws VersionConflictException {
+    if (removeConnection(command.getGameID(), session) != null) {
+      SESSION_GAMES.computeIfPresent(session, (s, games) -> {
+        games.remove(command.getGameID());
+        return games.isEmpty() ? null : games;
+      });
       broadcastNotification(command.getGameID(), String.format("%s left the game", auth.username()), session);
     }
 
     updateGameAfterLeave(auth, game);
   }
 
-  private void updateGameAfterLeave(AuthData auth, GameData game) {
+  private void updateGameAfterLeave(AuthData auth, GameData game) throws VersionConflictException {
     try {
       GameData updatedGame = createUpdatedGameData(auth, game);
       if (updatedGame != null) {
-        Server.gameDAO.updateGame(updatedGame);
+        Server.gameDAO.updateGameIfVersion(updatedGame);
       }
+    } catch (VersionConflictException e) {
+      throw e;
     } catch (DataAccessException e) {
       throw new RuntimeException(e);
     }
@@ -340,26 +459,20 @@ public class WebSocketHandler {
   private GameData createUpdatedGameData(AuthData auth, GameData game) {
     if (auth.username().equals(game.whiteUsername())) {
       return new GameData(game.gameID(), null, game.blackUsername(),
-              game.gameName(), game.game());
+              game.gameName(), game.game(), game.version());
     }
     if (auth.username().equals(game.blackUsername())) {
       return new GameData(game.gameID(), game.whiteUsername(), null,
-              game.gameName(), game.game());
+              game.gameName(), game.game(), game.version());
     }
     return null;
   }
 
 
   private void sendError(Session session, String message) {
-    try {
-      System.out.println("session for sending error: " + session.hashCode());
-      System.out.println("session get remote: " + session.getRemote().hashCode());
-      Error error=new Error(message);
-
-      session.getRemote().sendString(gson.toJson(error));
-    } catch (Exception e) {
-      System.err.println("❌ [WS-ERROR] Failed to send error: " + e.getMessage());
-    }
+    LOG.debug("Sending error to session {}: {}", session.hashCode(), message);
+    Error error=new Error(message);
+    SENDER.send(session, toJson(error));
   }
 
 
@@ -380,9 +493,9 @@ public class WebSocketHandler {
   private String createNotificationJson(String message) {
     try {
       Notification notification = new Notification(message);
-      return gson.toJson(notification);
+      return toJson(notification);
     } catch (Exception e) {
-      System.err.println("❌ [WS-BROADCAST] Failed to create notification JSON: " + e.getMessage());
+      LOG.error("Failed to create notification JSON", e);
       return null;
     }
   }
@@ -401,23 +514,13 @@ public class WebSocketHandler {
   }
 
   private void sendNotification(Session session, String jsonNotification) {
-    try {
-      session.getRemote().sendString(jsonNotification);
-    } catch (Exception e) {
-      System.err.println("❌ [WS-BROADCAST] Failed to send to session: " + e.getMessage());
-    }
+    SENDER.send(session, jsonNotification);
   }
 
   private void broadcast(Map<Session, String> sessions, String message) {
     if (sessions != null) {
       for (Session session : sessions.keySet()) {
-        try {
-          if (session.isOpen()) {
-            session.getRemote().sendString(message);
-          }
-        } catch (Exception e) {
-          System.err.println("❌ [WS-BROADCAST] Failed to broadcast: " + e.getMessage());
-        }
+        SENDER.send(session, message);
       }
     }
   }
@@ -425,13 +528,14 @@ public class WebSocketHandler {
   @OnWebSocketClose
   public void onWebSocketClose(Session session, int statusCode, String reason) {
     logCloseEvent(session, statusCode, reason);
+    SENDER.remove(session);
+    DELTA_SESSIONS.remove(session);
+    SESSION_AUTH.remove(session);
     handleSessionClosure(session);
   }
 
   private void logCloseEvent(Session session, int statusCode, String reason) {
-    System.out.println("\n⚡ [DEBUG] onWebSocketClose triggered");
-    System.out.println("\n🔴 [WS-CLOSE] Connection closing for session " + session.hashCode());
-    System.out.println("🔴 [WS-CLOSE] Status: " + statusCode + ", Reason: " + reason);
+    LOG.debug("Session {} closed with status {}: {}", session.hashCode(), statusCode, reason);
   }
 
   private void handleSessionClosure(Session session) {
@@ -439,36 +543,84 @@ public class WebSocketHandler {
       return;
     }
 
-    // Clean up all game connections for this session
-    GAME_CONNECTIONS.values().forEach(this::handleGameSessionClosure);
-  }
-
-  private void handleGameSessionClosure(Map<Session, String> sessions) {
-    if (sessions == null) {
+    Set<Integer> games = SESSION_GAMES.remove(session);
+    if (games == null) {
       return;
     }
-
-    for (Map.Entry<Session, String> entry : sessions.entrySet()) {
-      Session currentSession = entry.getKey();
-      String username = entry.getValue();
-
-      if (username != null) {
+    for (Integer gameId : games) {
+      String username = removeConnection(gameId, session);
+      Map<Session, String> sessions = GAME_CONNECTIONS.get(gameId);
+      if (username != null && sessions != null) {
         notifyDisconnection(sessions, username);
       }
-      sessions.remove(currentSession);
     }
   }
 
+  private Map<Session, String> addConnection(int gameId, Session session, String username) {
+    // Added inside compute so a LEAVE emptying and unmapping the set cannot swallow this join.
+    SESSION_GAMES.compute(session, (s, games) -> {
+      Set<Integer> target = games != null ? games : ConcurrentHashMap.newKeySet();
+      target.add(gameId);
+      return target;
+    });
+    // compute keeps this atomic with removeConnection dropping the game's map once it empties.
+    return GAME_CONNECTIONS.compute(gameId, (id, sessions) -> {
+      Map<Session, String> target = sessions != null ? sessions : new ConcurrentHashMap<>();
+      target.put(session, username);
+      return target;
+    });
+  }
+
+  /**
+   * @return the username the session was connected as, or null if it was not in the game
+   */
+  private String removeConnection(int gameId, Session session) {
+    String[] removed = {null};
+    GAME_CONNECTIONS.computeIfPresent(gameId, (id, sessions) -> {
+      removed[0] = sessions.remove(session);
+      if (sessions.isEmpty()) {
+        FRAMES.invalidate(gameId);
+        return null;
+      }
+      return sessions;
+    });
+    return removed[0];
+  }
+
   private void notifyDisconnection(Map<Session, String> sessions, String username) {
     Notification notification = new Notification(username + " disconnected");
-    String message = gson.toJson(notification);
+    String message = toJson(notification);
     broadcast(sessions, message);
   }
 
+  private String toJson(ServerMessage message) {
+    long start = System.nanoTime();
+    String json = gson.toJson(message);
+    GameFrameCache.serializeTimer(message.getServerMessageType()).observeSince(start);
+    return json;
+  }
+
+  static void registerGauges() {
+    Metrics.gauge("ws_active_games", "Games with at least one connected session", GAME_CONNECTIONS::size);
+    Metrics.gauge("ws_active_sessions", "Sessions connected to at least one game", SESSION_GAMES::size);
+    Metrics.gauge("ws_outbound_queued", "Messages waiting in session send queues", () -> SENDER.stats().queued());
+    Metrics.gauge("ws_outbound_max_queue_depth", "Deepest session send queue seen", () -> SENDER.stats().maxQueued());
+    Metrics.counter("ws_outbound_dropped_total", "Messages dropped for slow sessions", () -> SENDER.stats().dropped());
+    Metrics.counter("ws_slow_consumer_disconnects_total", "Sessions closed for falling behind",
+            () -> SENDER.stats().disconnected());
+    Metrics.counter("load_game_frame_hits_total", "LOAD_GAME messages served from the frame cache", FRAMES::hits);
+    Metrics.counter("load_game_frame_misses_total", "LOAD_GAME messages serialized afresh", FRAMES::misses);
+  }
+
+  /**
+   * @return outbound queue depth and slow-consumer counters across all sessions
+   */
+  public static SessionSender.Stats senderStats() {
+    return SENDER.stats();
+  }
+
   @OnWebSocketError
   public void onWebSocketError(Throwable cause) {
-    System.out.println("\n⚡ [DEBUG] onWebSocketError triggered");
-    System.err.println("\n❌ [WS-ERROR] WebSocket error occurred:");
-    cause.printStackTrace();
+    LOG.warn("WebSocket error", cause);
   }
 }
\ No newline at end of file
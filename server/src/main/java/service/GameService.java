@@ -3,9 +3,14 @@ package service;
 import dataaccess.*;
 import model.*;
 import chess.ChessGame;
+import metrics.Metrics;
 import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
 
 public class GameService {
+  // Version conflicts retried before the request fails; each retry re-reads and re-checks the game.
+  public static final int MAX_UPDATE_ATTEMPTS = 5;
+
   private final UserDAO userDAO;
   private final GameDAO gameDAO;
   private final AuthDAO authDAO;
@@ -30,6 +35,18 @@ public class GameService {
     return gameDAO.listGames();
   }
 
+  /**
+   * One page of game summaries; with mine set, only games the caller plays in.
+   */
+  public Collection<GameSummary> listGameSummaries(String authToken, GameQuery query, boolean mine)
+          throws DataAccessException, UnauthorizedException {
+    AuthData auth = authDAO.getAuth(authToken);
+    if (auth == null) {
+      throw new UnauthorizedException("Error: unauthorized");
+    }
+    return gameDAO.listGameSummaries(mine ? query.withPlayer(auth.username()) : query);
+  }
+
   public CreateGameResult createGame(String authToken, String gameName)
           throws DataAccessException, UnauthorizedException, BadRequestException {
     if (gameName == null || gameName.isBlank()) {
@@ -42,15 +59,7 @@ public class GameService {
     }
 
     GameData newGame = new GameData(0, null, null, gameName, new ChessGame());
-    gameDAO.createGame(newGame);
-
-    Collection<GameData> games = gameDAO.listGames();
-    GameData createdGame = games.stream()
-            .filter(g -> g.gameName().equals(gameName))
-            .findFirst()
-            .orElseThrow(() -> new DataAccessException("Failed to create game"));
-
-    return new CreateGameResult(createdGame.gameID());
+    return new CreateGameResult(gameDAO.createGame(newGame));
   }
 
   public record CreateGameResult(int gameID) {}
@@ -66,6 +75,29 @@ public class GameService {
     //  throw new BadRequestException("Error: bad request");}
 
 
+    for (int attempt = 1; ; attempt++) {
+      try {
+        tryJoinGame(auth, playerColor, gameID);
+        return;
+      } catch (VersionConflictException e) {
+        conflicts("join").increment();
+        if (attempt == MAX_UPDATE_ATTEMPTS) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the counter of version conflicts hit by an operation
+   */
+  public static LongAdder conflicts(String operation) {
+    return Metrics.counter("game_version_conflicts_total",
+            "Game updates that found the game changed since it was read", "operation", operation);
+  }
+
+  private void tryJoinGame(AuthData auth, String playerColor, int gameID)
+          throws DataAccessException, BadRequestException, AlreadyTakenException {
     GameData game;
     try {
       game = gameDAO.getGame(gameID);
@@ -86,18 +118,18 @@ public class GameService {
           throw new AlreadyTakenException("Error: already taken");
         }
         game = new GameData(game.gameID(), auth.username(), game.blackUsername(),
-                game.gameName(), game.game());
+                game.gameName(), game.game(), game.version());
       }
       case "BLACK" -> {
         if (game.blackUsername() != null && !game.blackUsername().equals(auth.username())) {
           throw new AlreadyTakenException("Error: already taken");
         }
         game = new GameData(game.gameID(), game.whiteUsername(), auth.username(),
-                game.gameName(), game.game());
+                game.gameName(), game.game(), game.version());
       }
       default -> throw new BadRequestException("Error: bad request");
     }
 
-    gameDAO.updateGame(game);
+    gameDAO.updateGameIfVersion(game);
   }
 }
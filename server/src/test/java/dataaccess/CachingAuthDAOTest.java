@@ -0,0 +1,117 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingAuthDAOTest {
+  private CountingAuthDAO backing;
+  private CachingAuthDAO authDAO;
+
+  /**
+   * MemoryAuthDAO that counts lookups reaching it.
+   */
+  private static class CountingAuthDAO extends MemoryAuthDAO {
+    final AtomicInteger reads = new AtomicInteger();
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+      reads.incrementAndGet();
+      return super.getAuth(authToken);
+    }
+  }
+
+  @BeforeEach
+  void setUp() throws DataAccessException {
+    backing = new CountingAuthDAO();
+    backing.createAuth(new AuthData("user", "token"));
+    authDAO = new CachingAuthDAO(backing, 60_000, 2);
+  }
+
+  @Test
+  void repeatedLookupsHitCache() throws DataAccessException {
+    assertEquals("user", authDAO.getAuth("token").username());
+    assertEquals("user", authDAO.getAuth("token").username());
+
+    assertEquals(1, backing.reads.get());
+    assertEquals(1, authDAO.hits());
+    assertEquals(1, authDAO.misses());
+  }
+
+  @Test
+  void deleteInvalidatesImmediately() throws DataAccessException {
+    authDAO.getAuth("token");
+
+    authDAO.deleteAuth("token");
+
+    assertNull(authDAO.getAuth("token"));
+  }
+
+  @Test
+  void lookupDuringSlowDeleteDoesNotOutliveIt() throws Exception {
+    var deleting = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var slow = new CountingAuthDAO() {
+      @Override
+      public void deleteAuth(String authToken) throws DataAccessException {
+        deleting.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.deleteAuth(authToken);
+      }
+    };
+    slow.createAuth(new AuthData("user", "token"));
+    authDAO = new CachingAuthDAO(slow, 60_000, 2);
+    long before = authDAO.deletionVersion();
+
+    var delete = new Thread(() -> {
+      try {
+        authDAO.deleteAuth("token");
+      } catch (DataAccessException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    delete.start();
+    assertTrue(deleting.await(5, TimeUnit.SECONDS));
+    // The row is still there, so this lookup sees it after the first invalidation.
+    assertEquals("user", authDAO.getAuth("token").username());
+    long during = authDAO.deletionVersion();
+    release.countDown();
+    delete.join(5000);
+
+    assertNull(authDAO.getAuth("token"));
+    assertTrue(authDAO.deletionVersion() > during);
+    assertTrue(during > before);
+  }
+
+  @Test
+  void expiredEntriesAreReloaded() throws Exception {
+    authDAO = new CachingAuthDAO(backing, 1, 2);
+    authDAO.getAuth("token");
+    Thread.sleep(5);
+
+    authDAO.getAuth("token");
+
+    assertEquals(2, backing.reads.get());
+  }
+
+  @Test
+  void cacheStaysWithinBound() throws DataAccessException {
+    for (int i = 0; i < 5; i++) {
+      authDAO.createAuth(new AuthData("user" + i, "token" + i));
+    }
+
+    for (int i = 0; i < 5; i++) {
+      assertEquals("user" + i, authDAO.getAuth("token" + i).username());
+    }
+    assertTrue(backing.reads.get() >= 3);
+  }
+}
@@ -0,0 +1,349 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.GameData;
+import model.GameSummary;
+import model.MoveRecord;
+import org.junit.jupiter.api.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingGameDAOTest {
+  private CountingGameDAO backing;
+  private CachingGameDAO gameDAO;
+
+  /**
+   * MemoryGameDAO that counts how often the cache falls through to it.
+   */
+  private static class CountingGameDAO extends MemoryGameDAO {
+    final AtomicInteger reads = new AtomicInteger();
+    final AtomicInteger writes = new AtomicInteger();
+    final AtomicInteger moves = new AtomicInteger();
+
+    @Override
+    public GameData getGame(int gameId) throws DataAccessException {
+      reads.incrementAndGet();
+      return super.getGame(gameId);
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+      writes.incrementAndGet();
+      super.updateGame(game);
+    }
+
+    @Override
+    public GameData recordMove(GameData game, MoveRecord move) throws DataAccessException {
+      moves.incrementAndGet();
+      return super.recordMove(game, move);
+    }
+  }
+
+  @BeforeEach
+  void setUp() throws DataAccessException {
+    backing = new CountingGameDAO();
+    gameDAO = new CachingGameDAO(backing, 60_000, 100, 100);
+    gameDAO.createGame(new GameData(0, null, null, "game", new ChessGame()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    gameDAO.close();
+  }
+
+  @Test
+  void repeatedReadsAreServedFromCache() throws Exception {
+    gameDAO.getGame(1);
+    gameDAO.getGame(1);
+    gameDAO.getGame(1);
+
+    assertEquals(1, backing.reads.get());
+  }
+
+  @Test
+  void updatesAreCoalescedUntilClose() throws Exception {
+    GameData game = gameDAO.getGame(1);
+    gameDAO.updateGame(new GameData(1, "white", null, "game", game.game()));
+    gameDAO.updateGame(new GameData(1, "white", "black", "game", game.game()));
+
+    assertEquals(0, backing.writes.get());
+    assertEquals("black", gameDAO.getGame(1).blackUsername());
+    assertEquals(1, gameDAO.pendingWrites());
+
+    gameDAO.close();
+
+    assertEquals(1, backing.writes.get());
+    assertEquals("black", backing.getGame(1).blackUsername());
+  }
+
+  @Test
+  void recordedMovesAreFlushedWithoutRewritingState() throws Exception {
+    GameData game = gameDAO.getGame(1);
+    ChessMove first = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+    ChessMove second = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+    game.game().makeMove(first);
+    game = gameDAO.recordMove(game, MoveRecord.after(game.game(), first));
+    game.game().makeMove(second);
+    game = gameDAO.recordMove(game, MoveRecord.after(game.game(), second));
+
+    assertEquals(0, backing.moves.get());
+
+    gameDAO.close();
+
+    assertEquals(2, backing.moves.get());
+    assertEquals(0, backing.writes.get());
+    assertEquals(2, backing.getGame(1).game().getPly());
+    assertEquals(2, backing.getGame(1).version());
+  }
+
+  @Test
+  void staleVersionIsRejected() throws Exception {
+    GameData first = gameDAO.getGame(1);
+    GameData second = gameDAO.getGame(1);
+    gameDAO.updateGameIfVersion(new GameData(1, "white", null, "game", first.game(), first.version()));
+
+    assertThrows(VersionConflictException.class, () ->
+            gameDAO.updateGameIfVersion(new GameData(1, "other", null, "game", second.game(), second.version())));
+    assertEquals("white", gameDAO.getGame(1).whiteUsername());
+    assertEquals(1, gameDAO.getGame(1).version());
+  }
+
+  @Test
+  void readsDoNotShareCachedState() throws Exception {
+    gameDAO.getGame(1).game().setTeamTurn(ChessGame.TeamColor.RESIGNED);
+
+    assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(1).game().getTeamTurn());
+  }
+
+  @Test
+  void gameStaysCachedWhileItsWriteIsInFlight() throws Exception {
+    var writing = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var blocking = new CountingGameDAO() {
+      @Override
+      public void updateGame(GameData game) throws DataAccessException {
+        writing.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.updateGame(game);
+      }
+    };
+    blocking.createGame(new GameData(0, null, null, "first", new ChessGame()));
+    blocking.createGame(new GameData(0, null, null, "second", new ChessGame()));
+    var small = new CachingGameDAO(blocking, 0, 100, 1);
+    try {
+      small.updateGame(new GameData(1, "white", null, "first", new ChessGame()));
+      assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+      // Game 2 fills the cache; game 1 must not be evicted and reloaded from the old row.
+      small.getGame(2);
+      int reads = blocking.reads.get();
+      assertEquals("white", small.getGame(1).whiteUsername());
+      assertEquals(reads, blocking.reads.get());
+    } finally {
+      release.countDown();
+      small.close();
+    }
+  }
+
+  @Test
+  void evictionRacingUpdatesLosesNoneOfThem() throws Exception {
+    var store = new CountingGameDAO();
+    for (String name : List.of("first", "second", "third")) {
+      store.createGame(new GameData(0, null, null, name, new ChessGame()));
+    }
+    var small = new CachingGameDAO(store, 0, 100, 1);
+    var done = new AtomicBoolean();
+    // Reading games 2 and 3 in turn keeps the cache full, so every miss tries to evict game 1.
+    Thread reader = new Thread(() -> {
+      try {
+        for (int i = 0; !done.get(); i++) {
+          small.getGame(2 + i % 2);
+        }
+      } catch (DataAccessException | BadRequestException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    reader.start();
+    int updates = 50000;
+    try {
+      for (int i = 0; i < updates; i++) {
+        // Eviction between the read and the write is a conflict; a lost update would show as a
+        // read of an older version that then succeeds.
+        while (true) {
+          try {
+            small.updateGameIfVersion(small.getGame(1));
+            break;
+          } catch (VersionConflictException e) {
+            // read again
+          }
+        }
+      }
+    } finally {
+      done.set(true);
+      reader.join();
+      small.close();
+    }
+
+    assertEquals(updates, store.getGame(1).version());
+  }
+
+  @Test
+  void writeThatThrowsIsRetried() throws Exception {
+    var attempts = new AtomicInteger();
+    var failing = new CountingGameDAO() {
+      @Override
+      public void updateGame(GameData game) throws DataAccessException {
+        if (attempts.getAndIncrement() == 0) {
+          throw new IllegalStateException("connection reset");
+        }
+        super.updateGame(game);
+      }
+    };
+    failing.createGame(new GameData(0, null, null, "game", new ChessGame()));
+    var retrying = new CachingGameDAO(failing, 0, 100, 100);
+    try {
+      retrying.updateGame(new GameData(1, "white", null, "game", new ChessGame()));
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (failing.getGame(1).whiteUsername() == null && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals("white", failing.getGame(1).whiteUsername());
+      assertEquals(2, attempts.get());
+    } finally {
+      retrying.close();
+    }
+  }
+
+  @Test
+  void permanentWriteFailureIsDroppedAndEvicted() throws Exception {
+    var attempts = new AtomicInteger();
+    var conflicting = new CountingGameDAO() {
+      @Override
+      public void updateGame(GameData game) throws DataAccessException {
+        attempts.incrementAndGet();
+        throw new VersionConflictException(game.gameID());
+      }
+    };
+    conflicting.createGame(new GameData(0, null, null, "game", new ChessGame()));
+    var dropping = new CachingGameDAO(conflicting, 0, 100, 100);
+    try {
+      dropping.updateGame(new GameData(1, "white", null, "game", new ChessGame()));
+
+      awaitWrites(dropping, attempts, 1);
+      Thread.sleep(200);
+      assertEquals(1, attempts.get());
+      assertEquals(0, dropping.pendingWrites());
+      // Evicted, so the read goes back to the delegate's copy.
+      assertNull(dropping.getGame(1).whiteUsername());
+    } finally {
+      dropping.close();
+    }
+  }
+
+  @Test
+  void transientWriteFailureGivesUpAfterMaxAttempts() throws Exception {
+    var attempts = new AtomicInteger();
+    var failing = new CountingGameDAO() {
+      @Override
+      public void updateGame(GameData game) throws DataAccessException {
+        attempts.incrementAndGet();
+        throw new DataAccessException("Error: connection refused");
+      }
+    };
+    failing.createGame(new GameData(0, null, null, "game", new ChessGame()));
+    var retrying = new CachingGameDAO(failing, 0, 100, 100);
+    try {
+      retrying.updateGame(new GameData(1, "white", null, "game", new ChessGame()));
+
+      awaitWrites(retrying, attempts, CachingGameDAO.MAX_FLUSH_ATTEMPTS);
+      Thread.sleep(200);
+      assertEquals(CachingGameDAO.MAX_FLUSH_ATTEMPTS, attempts.get());
+      assertEquals(0, retrying.pendingWrites());
+    } finally {
+      retrying.close();
+    }
+  }
+
+  private static void awaitWrites(CachingGameDAO dao, AtomicInteger attempts, int expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while ((attempts.get() < expected || dao.pendingWrites() > 0) && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  void listGamesShowsUnflushedUpdates() throws Exception {
+    gameDAO.updateGame(new GameData(1, "white", null, "game", new ChessGame()));
+
+    Collection<GameData> games = gameDAO.listGames();
+
+    assertEquals("white", games.iterator().next().whiteUsername());
+  }
+
+  @Test
+  void listGamesDoesNotShareCachedState() throws Exception {
+    gameDAO.updateGame(new GameData(1, "white", null, "game", new ChessGame()));
+
+    gameDAO.listGames().iterator().next().game().setTeamTurn(ChessGame.TeamColor.RESIGNED);
+
+    assertEquals(ChessGame.TeamColor.WHITE, gameDAO.listGames().iterator().next().game().getTeamTurn());
+  }
+
+  @Test
+  void summaryUsesStatusOfRecordedMove() throws Exception {
+    GameData game = gameDAO.getGame(1);
+    ChessMove[] foolsMate = {
+            new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null),
+            new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null),
+            new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null),
+            new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null)};
+    for (ChessMove move : foolsMate) {
+      game.game().makeMove(move);
+      game = gameDAO.recordMove(game, MoveRecord.after(game.game(), move));
+    }
+
+    Collection<GameSummary> summaries = gameDAO.listGameSummaries(GameQuery.firstPage());
+
+    assertEquals(GameSummary.Status.FINISHED, summaries.iterator().next().status());
+    assertEquals(0, backing.moves.get());
+  }
+
+  @Test
+  void summariesReflectUnflushedUpdatesAcrossPages() throws Exception {
+    gameDAO.createGame(new GameData(0, null, null, "second", new ChessGame()));
+    gameDAO.createGame(new GameData(0, null, null, "third", new ChessGame()));
+    // Game 1 fills up before the backing store hears of it, so it must drop out of the open list.
+    gameDAO.updateGame(new GameData(1, "white", "black", "game", new ChessGame()));
+
+    GameQuery open = new GameQuery(0, 1, true, null, null);
+    List<GameSummary> firstPage = List.copyOf(gameDAO.listGameSummaries(open));
+    assertEquals(List.of(2), firstPage.stream().map(GameSummary::gameID).toList());
+
+    GameQuery next = new GameQuery(2, 1, true, null, null);
+    assertEquals("third", gameDAO.listGameSummaries(next).iterator().next().gameName());
+
+    Collection<GameSummary> mine = gameDAO.listGameSummaries(GameQuery.firstPage().withPlayer("black"));
+    assertEquals(1, mine.size());
+    assertEquals(GameSummary.Status.ACTIVE, mine.iterator().next().status());
+  }
+
+  @Test
+  void updateMissingGameFails() {
+    assertThrows(DataAccessException.class,
+            () -> gameDAO.updateGame(new GameData(42, null, null, "missing", new ChessGame())));
+  }
+}
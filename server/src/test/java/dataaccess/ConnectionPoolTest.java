@@ -0,0 +1,76 @@
+package dataaccess;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+  private final AtomicInteger opened = new AtomicInteger();
+  private ConnectionPool pool;
+
+  @BeforeEach
+  void setUp() {
+    opened.set(0);
+    pool = new ConnectionPool(this::fakeConnection, new ConnectionPool.Config(0, 2, 60_000, 100));
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.close();
+  }
+
+  private Connection fakeConnection() {
+    opened.incrementAndGet();
+    boolean[] closed = {false};
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> switch (method.getName()) {
+              case "close" -> {
+                closed[0] = true;
+                yield null;
+              }
+              case "isClosed" -> closed[0];
+              case "isValid", "getAutoCommit" -> true;
+              default -> null;
+            });
+  }
+
+  @Test
+  void closedConnectionIsReused() throws Exception {
+    try (Connection conn = pool.borrow()) {
+      assertFalse(conn.isClosed());
+    }
+    try (Connection conn = pool.borrow()) {
+      assertFalse(conn.isClosed());
+    }
+
+    assertEquals(1, opened.get());
+    assertEquals(2, pool.stats().borrows());
+    assertEquals(1, pool.stats().idle());
+  }
+
+  @Test
+  void borrowTimesOutWhenExhausted() throws Exception {
+    Connection first = pool.borrow();
+    Connection second = pool.borrow();
+
+    assertThrows(DataAccessException.class, () -> pool.borrow());
+    assertEquals(1, pool.stats().timeouts());
+    assertEquals(2, pool.stats().active());
+
+    first.close();
+    second.close();
+  }
+
+  @Test
+  void returnedConnectionCannotBeUsed() throws Exception {
+    Connection conn = pool.borrow();
+    conn.close();
+
+    assertTrue(conn.isClosed());
+    assertThrows(Exception.class, () -> conn.prepareStatement("SELECT 1"));
+  }
+}
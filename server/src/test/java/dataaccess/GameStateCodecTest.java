@@ -0,0 +1,51 @@
+package dataaccess;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateCodecTest {
+
+  @Test
+  void roundTripsStartingGame() throws DataAccessException {
+    ChessGame game = new ChessGame();
+
+    byte[] encoded = GameStateCodec.encode(game);
+
+    assertEquals(GameStateCodec.LENGTH, encoded.length);
+    assertEquals(game, GameStateCodec.decode(encoded));
+  }
+
+  @Test
+  void roundTripsPlayedAndResignedGame() throws Exception {
+    ChessGame game = new ChessGame();
+    game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+    game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+    game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null));
+    game.setTeamTurn(ChessGame.TeamColor.RESIGNED);
+
+    ChessGame decoded = GameStateCodec.decode(GameStateCodec.encode(game));
+
+    assertEquals(game.getBoard(), decoded.getBoard());
+    assertEquals(ChessGame.TeamColor.RESIGNED, decoded.getTeamTurn());
+    assertEquals(3, decoded.getPly());
+    assertNull(decoded.getBoard().getPiece(new ChessPosition(7, 4)));
+  }
+
+  @Test
+  void rejectsPlyOutsideField() throws DataAccessException {
+    ChessGame game = new ChessGame();
+    game.setPly(GameStateCodec.MAX_PLY);
+    assertEquals(GameStateCodec.MAX_PLY, GameStateCodec.decode(GameStateCodec.encode(game)).getPly());
+
+    game.setPly(GameStateCodec.MAX_PLY + 1);
+    assertThrows(IllegalArgumentException.class, () -> GameStateCodec.encode(game));
+  }
+
+  @Test
+  void rejectsMalformedState() {
+    assertThrows(DataAccessException.class, () -> GameStateCodec.decode(new byte[3]));
+    assertThrows(DataAccessException.class, () -> GameStateCodec.decode(null));
+  }
+}
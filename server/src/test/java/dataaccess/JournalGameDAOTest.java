@@ -0,0 +1,104 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JournalGameDAOTest {
+
+  @TempDir
+  Path dir;
+
+  private JournalGameDAO open(Path file) throws DataAccessException {
+    return new JournalGameDAO(file, 60_000, Long.MAX_VALUE);
+  }
+
+  @Test
+  void gamesSurviveReopening() throws Exception {
+    Path file = dir.resolve("games.journal");
+    try (JournalGameDAO journal = open(file)) {
+      int gameId = journal.createGame(new GameData(0, null, null, "game", new ChessGame()));
+      GameData game = journal.getGame(gameId);
+      game.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+      journal.updateGameIfVersion(new GameData(gameId, "white", null, "game", game.game(), game.version()));
+    }
+
+    try (JournalGameDAO journal = open(file)) {
+      GameData game = journal.getGame(1);
+      assertEquals("white", game.whiteUsername());
+      assertEquals(1, game.game().getPly());
+      assertEquals(1, game.version());
+      assertThrows(VersionConflictException.class, () ->
+              journal.updateGameIfVersion(new GameData(1, "other", null, "game", new ChessGame(), 0)));
+      assertEquals(2, journal.createGame(new GameData(0, null, null, "next", new ChessGame())));
+    }
+  }
+
+  @Test
+  void tornRecordIsDiscardedOnRecovery() throws Exception {
+    Path file = dir.resolve("games.journal");
+    int tornAt;
+    try (JournalGameDAO journal = open(file)) {
+      journal.createGame(new GameData(0, null, null, "kept", new ChessGame()));
+      tornAt = journal.journalBytes();
+      journal.createGame(new GameData(0, null, null, "torn", new ChessGame()));
+    }
+    // Corrupt the payload of the second record so its checksum no longer matches.
+    try (var raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(tornAt + 12);
+      raf.write(0x7F);
+    }
+
+    try (JournalGameDAO journal = open(file)) {
+      assertEquals(1, journal.listGames().size());
+      assertEquals("kept", journal.getGame(1).gameName());
+      assertEquals(2, journal.createGame(new GameData(0, null, null, "again", new ChessGame())));
+      assertEquals("again", journal.getGame(2).gameName());
+    }
+  }
+
+  @Test
+  void compactionKeepsOnlyLatestRecords() throws Exception {
+    Path file = dir.resolve("games.journal");
+    try (JournalGameDAO journal = open(file)) {
+      int gameId = journal.createGame(new GameData(0, null, null, "game", new ChessGame()));
+      for (int i = 0; i < 100; i++) {
+        journal.updateGame(new GameData(gameId, "white" + i, null, "game", new ChessGame()));
+      }
+      int before = journal.journalBytes();
+
+      journal.compact();
+
+      assertTrue(journal.journalBytes() < before / 50);
+      assertEquals("white99", journal.getGame(gameId).whiteUsername());
+      journal.updateGame(new GameData(gameId, "white", "black", "game", new ChessGame()));
+    }
+
+    try (JournalGameDAO journal = open(file)) {
+      assertEquals("black", journal.getGame(1).blackUsername());
+    }
+  }
+
+  @Test
+  void clearSurvivesReopening() throws Exception {
+    Path file = dir.resolve("games.journal");
+    try (JournalGameDAO journal = open(file)) {
+      journal.createGame(new GameData(0, null, null, "game", new ChessGame()));
+      journal.clear();
+    }
+
+    try (JournalGameDAO journal = open(file)) {
+      assertTrue(journal.listGames().isEmpty());
+      assertThrows(DataAccessException.class,
+              () -> journal.updateGame(new GameData(1, null, null, "game", new ChessGame())));
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryAuthDAOTest {
+
+  @Test
+  void deletesAdvanceDeletionVersion() throws DataAccessException {
+    var authDAO = new MemoryAuthDAO();
+    authDAO.createAuth(new AuthData("user", "token"));
+    long created = authDAO.deletionVersion();
+    assertNotEquals(-1, created);
+
+    authDAO.deleteAuth("token");
+    long deleted = authDAO.deletionVersion();
+    assertTrue(deleted > created);
+    assertNull(authDAO.getAuth("token"));
+
+    authDAO.clear();
+    assertTrue(authDAO.deletionVersion() > deleted);
+  }
+}
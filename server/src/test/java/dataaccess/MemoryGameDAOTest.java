@@ -0,0 +1,61 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryGameDAOTest {
+
+  @Test
+  void concurrentCreatesGetDistinctIds() throws Exception {
+    var gameDAO = new MemoryGameDAO();
+    Set<Integer> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 1000; i++) {
+      pool.execute(() -> {
+        try {
+          ids.add(gameDAO.createGame(new GameData(0, null, null, "game", new ChessGame())));
+        } catch (DataAccessException e) {
+          throw new RuntimeException(e);
+        }
+      });
+    }
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1000, ids.size());
+    assertEquals(1000, gameDAO.listGames().size());
+  }
+
+  @Test
+  void staleVersionIsRejected() throws Exception {
+    var gameDAO = new MemoryGameDAO();
+    int gameId = gameDAO.createGame(new GameData(0, null, null, "game", new ChessGame()));
+    GameData read = gameDAO.getGame(gameId);
+
+    GameData stored = gameDAO.updateGameIfVersion(new GameData(gameId, "white", null, "game", read.game(), read.version()));
+
+    assertEquals(1, stored.version());
+    assertThrows(VersionConflictException.class, () ->
+            gameDAO.updateGameIfVersion(new GameData(gameId, "other", null, "game", read.game(), read.version())));
+    assertEquals("white", gameDAO.getGame(gameId).whiteUsername());
+  }
+
+  @Test
+  void readsReturnIndependentCopies() throws Exception {
+    var gameDAO = new MemoryGameDAO();
+    int gameId = gameDAO.createGame(new GameData(0, null, null, "game", new ChessGame()));
+
+    gameDAO.getGame(gameId).game().setTeamTurn(ChessGame.TeamColor.RESIGNED);
+
+    assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(gameId).game().getTeamTurn());
+  }
+}
@@ -0,0 +1,67 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemorySnapshotTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void savedDataLoadsIntoFreshDAOs() throws Exception {
+    Path file = dir.resolve("chess.snapshot");
+    var users = new MemoryUserDAO();
+    var auths = new MemoryAuthDAO();
+    var games = new MemoryGameDAO();
+    users.createUser(new UserData("white", "hash", "white@email.com"));
+    auths.createAuth(new AuthData("white", "token"));
+    ChessGame chessGame = new ChessGame();
+    chessGame.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+    games.createGame(new GameData(0, "white", null, "saved", chessGame));
+    new MemorySnapshot(file, users, auths, games).save();
+
+    var loadedUsers = new MemoryUserDAO();
+    var loadedAuths = new MemoryAuthDAO();
+    var loadedGames = new MemoryGameDAO();
+    new MemorySnapshot(file, loadedUsers, loadedAuths, loadedGames).load();
+
+    assertEquals("white@email.com", loadedUsers.getUser("white").email());
+    assertEquals(users.getUser("white").password(), loadedUsers.getUser("white").password());
+    assertEquals("white", loadedAuths.getAuth("token").username());
+    GameData game = loadedGames.getGame(1);
+    assertEquals("white", game.whiteUsername());
+    assertNull(game.blackUsername());
+    assertEquals(1, game.game().getPly());
+    assertEquals(ChessGame.TeamColor.BLACK, game.game().getTeamTurn());
+    assertEquals(2, loadedGames.createGame(new GameData(0, null, null, "next", new ChessGame())));
+  }
+
+  @Test
+  void missingFileLoadsNothing() throws Exception {
+    var users = new MemoryUserDAO();
+    new MemorySnapshot(dir.resolve("absent"), users, new MemoryAuthDAO(), new MemoryGameDAO()).load();
+
+    assertTrue(users.listUsers().isEmpty());
+  }
+
+  @Test
+  void unknownFileIsRejected() throws Exception {
+    Path file = dir.resolve("garbage");
+    Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+    var snapshot = new MemorySnapshot(file, new MemoryUserDAO(), new MemoryAuthDAO(), new MemoryGameDAO());
+    assertThrows(DataAccessException.class, snapshot::load);
+  }
+}
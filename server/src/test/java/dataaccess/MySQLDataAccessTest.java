@@ -1,11 +1,14 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 import model.*;
 import org.junit.jupiter.api.*;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,9 +60,7 @@ public class MySQLDataAccessTest {
   }
 
   private GameData createAndGetGame(GameData game) throws DataAccessException {
-    gameDAO.createGame(game);
-    Collection<GameData> games = gameDAO.listGames();
-    return games.iterator().next();
+    return gameDAO.getGame(gameDAO.createGame(game));
   }
 
   private void createDefaultUser() throws DataAccessException {
@@ -171,6 +172,27 @@ public class MySQLDataAccessTest {
     assertThrows(DataAccessException.class, () -> gameDAO.createGame(invalidGame));
   }
 
+  @Test
+  void createGamesPositive() throws DataAccessException {
+    List<Integer> ids = gameDAO.createGames(List.of(
+            new GameData(0, null, null, "round1", new ChessGame()),
+            new GameData(0, null, null, "round2", new ChessGame())));
+
+    assertEquals(2, ids.size());
+    assertEquals("round1", gameDAO.getGame(ids.get(0)).gameName());
+    assertEquals("round2", gameDAO.getGame(ids.get(1)).gameName());
+  }
+
+  @Test
+  void createGamesNegative() throws DataAccessException {
+    List<GameData> games = List.of(
+            new GameData(0, null, null, "round1", new ChessGame()),
+            new GameData(0, "nonexistentUser", null, "round2", new ChessGame()));
+
+    assertThrows(DataAccessException.class, () -> gameDAO.createGames(games));
+    assertTrue(gameDAO.listGames().isEmpty());
+  }
+
   @Test
   void getGamePositive() throws DataAccessException {
     setupUsersForGame();
@@ -227,6 +249,27 @@ public class MySQLDataAccessTest {
     assertEquals("testGame", retrievedGame.gameName());
   }
 
+  @Test
+  void updateGameIfVersionPositive() throws DataAccessException {
+    setupUsersForGame();
+    GameData createdGame = createAndGetGame(defaultGameData);
+
+    GameData stored = gameDAO.updateGameIfVersion(new GameData(createdGame.gameID(), "newWhite",
+            createdGame.blackUsername(), createdGame.gameName(), createdGame.game(), createdGame.version()));
+
+    assertEquals(createdGame.version() + 1, stored.version());
+    assertEquals(stored.version(), gameDAO.getGame(createdGame.gameID()).version());
+  }
+
+  @Test
+  void updateGameIfVersionNegative() throws DataAccessException {
+    setupUsersForGame();
+    GameData createdGame = createAndGetGame(defaultGameData);
+    gameDAO.updateGameIfVersion(createdGame);
+
+    assertThrows(VersionConflictException.class, () -> gameDAO.updateGameIfVersion(createdGame));
+  }
+
   @Test
   void updateGameNonexistent() {
     GameData nonexistentGame = new GameData(999, null, null, "gameName", new ChessGame());
@@ -236,6 +279,38 @@ public class MySQLDataAccessTest {
     assertEquals("Error: game not found", exception.getMessage());
   }
 
+  @Test
+  void recordMovePositive() throws Exception {
+    setupUsersForGame();
+    GameData game = createAndGetGame(defaultGameData);
+    GameQuery finished = new GameQuery(0, GameQuery.DEFAULT_LIMIT, false, null, GameSummary.Status.FINISHED);
+    // Fool's mate; only the last move ends the game.
+    int[][] moves = {{2, 6, 3, 6}, {7, 5, 5, 5}, {2, 7, 4, 7}, {8, 4, 4, 8}};
+
+    for (int[] squares : moves) {
+      assertTrue(gameDAO.listGameSummaries(finished).isEmpty());
+      ChessMove move = new ChessMove(new ChessPosition(squares[0], squares[1]), new ChessPosition(squares[2], squares[3]), null);
+      game.game().makeMove(move);
+      game = gameDAO.recordMove(game, MoveRecord.after(game.game(), move));
+    }
+
+    assertEquals(List.of(game.gameID()),
+            gameDAO.listGameSummaries(finished).stream().map(GameSummary::gameID).toList());
+    assertEquals(4, gameDAO.getGame(game.gameID()).game().getPly());
+  }
+
+  @Test
+  void recordMoveNegative() throws Exception {
+    setupUsersForGame();
+    GameData game = createAndGetGame(defaultGameData);
+    ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+    game.game().makeMove(move);
+    MoveRecord record = MoveRecord.after(game.game(), move);
+    gameDAO.recordMove(game, record);
+
+    assertThrows(VersionConflictException.class, () -> gameDAO.recordMove(game, record));
+  }
+
   // Clear Tests
   @Test
   void clearUserPositive() throws DataAccessException {
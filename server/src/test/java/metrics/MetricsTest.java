@@ -0,0 +1,76 @@
+package metrics;
+
+import dataaccess.AuthDAO;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryAuthDAO;
+import model.AuthData;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+  @BeforeEach
+  void setUp() {
+    Metrics.reset();
+  }
+
+  @Test
+  void histogramIsRenderedWithCumulativeBuckets() {
+    Histogram histogram = Metrics.histogram("test_seconds", "Test latency", "route", "/game");
+    histogram.observeNanos(50_000);
+    histogram.observeNanos(2_000_000);
+    histogram.observeNanos(10_000_000_000L);
+
+    String text = Metrics.scrape();
+
+    assertTrue(text.contains("# TYPE test_seconds histogram\n"));
+    assertTrue(text.contains("test_seconds_bucket{route=\"/game\",le=\"1.0E-4\"} 1\n"));
+    assertTrue(text.contains("test_seconds_bucket{route=\"/game\",le=\"0.0025\"} 2\n"));
+    assertTrue(text.contains("test_seconds_bucket{route=\"/game\",le=\"5.0\"} 2\n"));
+    assertTrue(text.contains("test_seconds_bucket{route=\"/game\",le=\"+Inf\"} 3\n"));
+    assertTrue(text.contains("test_seconds_count{route=\"/game\"} 3\n"));
+  }
+
+  @Test
+  void sameNameAndLabelsReturnSameSeries() {
+    assertSame(Metrics.counter("hits_total", "Hits", "a", "1"), Metrics.counter("hits_total", "Hits", "a", "1"));
+    assertNotSame(Metrics.counter("hits_total", "Hits", "a", "1"), Metrics.counter("hits_total", "Hits", "a", "2"));
+    assertThrows(IllegalArgumentException.class, () -> Metrics.histogram("hits_total", "Hits"));
+  }
+
+  @Test
+  void gaugesAreReadAtScrapeTime() {
+    int[] value = {1};
+    Metrics.gauge("open_things", "Things", () -> value[0]);
+    value[0] = 7;
+
+    assertTrue(Metrics.scrape().contains("open_things 7\n"));
+  }
+
+  @Test
+  void countersAreTypedAndNamedAsTotals() {
+    long[] value = {3};
+    Metrics.counter("served_total", "Served", () -> value[0]);
+    Metrics.counter("dropped_total", "Dropped").add(2);
+    value[0] = 5;
+
+    String text = Metrics.scrape();
+    assertTrue(text.contains("# TYPE served_total counter\nserved_total 5\n"));
+    assertTrue(text.contains("# TYPE dropped_total counter\ndropped_total 2\n"));
+    assertThrows(IllegalArgumentException.class, () -> Metrics.counter("served", "Served"));
+  }
+
+  @Test
+  void timedDaoRecordsEachOperation() throws DataAccessException {
+    AuthDAO authDAO = Metrics.timed(AuthDAO.class, "auth", new MemoryAuthDAO());
+
+    authDAO.createAuth(new AuthData("user", "token"));
+    assertEquals("user", authDAO.getAuth("token").username());
+    authDAO.getAuth("token");
+
+    String text = Metrics.scrape();
+    assertTrue(text.contains("dao_query_seconds_count{dao=\"auth\",op=\"getAuth\"} 2\n"));
+    assertTrue(text.contains("dao_query_seconds_count{dao=\"auth\",op=\"createAuth\"} 1\n"));
+  }
+}
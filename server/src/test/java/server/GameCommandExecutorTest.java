@@ -0,0 +1,88 @@
+package server;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCommandExecutorTest {
+  private GameCommandExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = new GameCommandExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+  }
+
+  @Test
+  void tasksForOneGameRunInOrderWithoutOverlap() throws InterruptedException {
+    List<Integer> order = new CopyOnWriteArrayList<>();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch done = new CountDownLatch(200);
+
+    for (int i = 0; i < 200; i++) {
+      int index = i;
+      executor.submit(1, () -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        order.add(index);
+        running.decrementAndGet();
+        done.countDown();
+      });
+    }
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1, maxRunning.get());
+    for (int i = 0; i < 200; i++) {
+      assertEquals(i, order.get(i));
+    }
+  }
+
+  @Test
+  void busyGameDoesNotBlockOtherGames() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch otherRan = new CountDownLatch(1);
+
+    executor.submit(1, () -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    executor.submit(2, otherRan::countDown);
+
+    assertTrue(otherRan.await(5, TimeUnit.SECONDS));
+    release.countDown();
+  }
+
+  @Test
+  void failingTaskDoesNotStopTheMailbox() throws InterruptedException {
+    CountDownLatch ran = new CountDownLatch(1);
+
+    executor.submit(1, () -> {
+      throw new IllegalStateException("boom");
+    });
+    executor.submit(1, ran::countDown);
+
+    assertTrue(ran.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void submitAfterCloseIsRejected() {
+    executor.close();
+
+    assertThrows(RejectedExecutionException.class, () -> executor.submit(1, () -> { }));
+    assertEquals(0, executor.activeGames());
+  }
+}
@@ -0,0 +1,43 @@
+package server;
+
+import chess.*;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameFrameCacheTest {
+  private GameFrameCache frames;
+
+  @BeforeEach
+  void setUp() {
+    frames = new GameFrameCache(new Gson());
+  }
+
+  @Test
+  void unchangedGameReusesFrame() {
+    ChessGame game = new ChessGame();
+
+    String first = frames.loadGame(1, game);
+    String second = frames.loadGame(1, game);
+
+    assertSame(first, second);
+    assertEquals(1, frames.misses());
+    assertEquals(1, frames.hits());
+  }
+
+  @Test
+  void moveOrResignationRebuildsFrame() throws InvalidMoveException {
+    ChessGame game = new ChessGame();
+    String initial = frames.loadGame(1, game);
+
+    game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+    String afterMove = frames.loadGame(1, game);
+    game.setTeamTurn(ChessGame.TeamColor.RESIGNED);
+    String afterResign = frames.loadGame(1, game);
+
+    assertNotEquals(initial, afterMove);
+    assertNotEquals(afterMove, afterResign);
+    assertEquals(3, frames.misses());
+  }
+}
@@ -0,0 +1,105 @@
+package server;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionSenderTest {
+
+  /**
+   * Session whose writes complete only when the test says so.
+   */
+  private static class FakeSession {
+    final List<String> written = new ArrayList<>();
+    final List<WriteCallback> pending = new ArrayList<>();
+    boolean open = true;
+    final Session session;
+
+    FakeSession() {
+      RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(getClass().getClassLoader(),
+              new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                if (method.getName().equals("sendString") && args.length == 2) {
+                  written.add((String) args[0]);
+                  pending.add((WriteCallback) args[1]);
+                }
+                return null;
+              });
+      session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(),
+              new Class<?>[]{Session.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getRemote" -> remote;
+                case "isOpen" -> open;
+                case "close" -> {
+                  open = false;
+                  yield null;
+                }
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> null;
+              });
+    }
+
+    void completeWrites() {
+      while (!pending.isEmpty()) {
+        pending.remove(0).writeSuccess();
+      }
+    }
+  }
+
+  @Test
+  void messagesAreWrittenOneAtATimeInOrder() {
+    SessionSender sender = new SessionSender(10, SessionSender.OverflowPolicy.DISCONNECT);
+    FakeSession client = new FakeSession();
+
+    sender.send(client.session, "a");
+    sender.send(client.session, "b");
+    sender.send(client.session, "c");
+
+    assertEquals(List.of("a"), client.written);
+    assertEquals(2, sender.stats().queued());
+
+    client.completeWrites();
+
+    assertEquals(List.of("a", "b", "c"), client.written);
+    assertEquals(0, sender.stats().queued());
+    assertEquals(3, sender.stats().sent());
+  }
+
+  @Test
+  void slowConsumerIsDisconnectedWithoutAffectingOthers() {
+    SessionSender sender = new SessionSender(2, SessionSender.OverflowPolicy.DISCONNECT);
+    FakeSession slow = new FakeSession();
+    FakeSession fast = new FakeSession();
+
+    for (int i = 0; i < 4; i++) {
+      sender.send(slow.session, "m" + i);
+      sender.send(fast.session, "m" + i);
+      fast.completeWrites();
+    }
+
+    assertFalse(slow.open);
+    assertEquals(1, sender.stats().disconnected());
+    assertEquals(List.of("m0", "m1", "m2", "m3"), fast.written);
+  }
+
+  @Test
+  void dropPolicyKeepsSessionOpen() {
+    SessionSender sender = new SessionSender(1, SessionSender.OverflowPolicy.DROP);
+    FakeSession client = new FakeSession();
+
+    sender.send(client.session, "a");
+    sender.send(client.session, "b");
+    sender.send(client.session, "c");
+    client.completeWrites();
+
+    assertTrue(client.open);
+    assertEquals(1, sender.stats().dropped());
+    assertEquals(List.of("a", "b"), client.written);
+  }
+}
@@ -4,6 +4,12 @@ import chess.ChessGame;
 import dataaccess.*;
 import model.*;
 import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class GameServiceTest {
@@ -78,6 +84,52 @@ public class GameServiceTest {
     assertNotNull(game.game());
   }
 
+  @Test
+  public void testCreateGameDuplicateNames() throws DataAccessException, UnauthorizedException, BadRequestException {
+    String authToken = "test-auth-token";
+    authDAO.createAuth(new AuthData("testUser", authToken));
+
+    var first = gameService.createGame(authToken, "Same Name");
+    var second = gameService.createGame(authToken, "Same Name");
+
+    assertNotEquals(first.gameID(), second.gameID());
+    assertNotNull(gameDAO.getGame(second.gameID()));
+  }
+
+  @Test
+  public void testConcurrentJoinsForOneSeat() throws Exception {
+    int gameID = gameDAO.createGame(new GameData(0, null, null, "contested", new ChessGame()));
+    int players = 8;
+    for (int i = 0; i < players; i++) {
+      authDAO.createAuth(new AuthData("player" + i, "token" + i));
+    }
+
+    var start = new CountDownLatch(1);
+    var joined = new AtomicInteger();
+    var taken = new AtomicInteger();
+    var pool = Executors.newFixedThreadPool(players);
+    for (int i = 0; i < players; i++) {
+      String token = "token" + i;
+      pool.execute(() -> {
+        try {
+          start.await();
+          gameService.joinGame(token, "WHITE", gameID);
+          joined.incrementAndGet();
+        } catch (AlreadyTakenException e) {
+          taken.incrementAndGet();
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(1, joined.get());
+    assertEquals(players - 1, taken.get());
+  }
+
   @Test
   public void testCreateGameUnauthorized() {
     String invalidAuthToken = "invalid-token";
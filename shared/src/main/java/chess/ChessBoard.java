@@ -1,5 +1,7 @@
 package chess;
 
+import chess.rules.Bitboards;
+
 import java.util.Arrays;
 
 /**
@@ -10,6 +12,11 @@ import java.util.Arrays;
  */
 public class ChessBoard {
     private ChessPiece[][] squares=new ChessPiece[8][8];
+    // One bitboard per color and piece type, then one occupancy bitboard per color.
+    // Transient so the JSON form stays the square grid; rebuilt lazily after deserialization.
+    private transient long[] bitboards;
+    // Zobrist key of the piece placement, maintained alongside the bitboards.
+    private transient long zobristKey;
 
     public ChessBoard() {
         
@@ -21,6 +28,20 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
+        long[] boards=bitboards();
+        int square=Bitboards.square(position);
+        long bit=1L << square;
+        ChessPiece previous=squares[position.getRow()-1][position.getColumn()-1];
+        if (previous != null) {
+            zobristKey^=Zobrist.pieceSquare(index(previous), square);
+            boards[index(previous)]&=~bit;
+            boards[12 + Bitboards.colorIndex(previous.getTeamColor())]&=~bit;
+        }
+        if (piece != null) {
+            zobristKey^=Zobrist.pieceSquare(index(piece), square);
+            boards[index(piece)]|=bit;
+            boards[12 + Bitboards.colorIndex(piece.getTeamColor())]|=bit;
+        }
         squares[position.getRow()-1][position.getColumn()-1]=piece;
     }
 
@@ -35,38 +56,133 @@ public class ChessBoard {
         return squares[position.getRow()-1][position.getColumn()-1];
     }
 
+    /**
+     * @return 64-bit Zobrist key of the piece placement, updated incrementally by addPiece
+     */
+    public long getZobristKey() {
+        bitboards();
+        return zobristKey;
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color and type
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return bitboards()[Bitboards.colorIndex(color) * 6 + type.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color
+     */
+    public long occupancy(ChessGame.TeamColor color) {
+        return bitboards()[12 + Bitboards.colorIndex(color)];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long occupancy() {
+        long[] boards=bitboards();
+        return boards[12] | boards[13];
+    }
+
+    /**
+     * Gets the square of a team's king, kept current by addPiece
+     *
+     * @param color the team whose king to find
+     * @return the bitboard square index of the king, or -1 if that team has no king
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        long king=pieces(color, ChessPiece.PieceType.KING);
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square, looking outward
+     * from the square along knight jumps, pawn diagonals, king steps and sliding rays
+     *
+     * @param square   the bitboard square index to test
+     * @param attacker the team that may be attacking
+     * @return True if the square is attacked by the given team
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor attacker) {
+        if ((Bitboards.KNIGHT_ATTACKS[square] & pieces(attacker, ChessPiece.PieceType.KNIGHT)) != 0) {
+            return true;
+        }
+        int defenderIndex=1 - Bitboards.colorIndex(attacker);
+        if ((Bitboards.PAWN_ATTACKS[defenderIndex][square] & pieces(attacker, ChessPiece.PieceType.PAWN)) != 0) {
+            return true;
+        }
+        if ((Bitboards.KING_ATTACKS[square] & pieces(attacker, ChessPiece.PieceType.KING)) != 0) {
+            return true;
+        }
+        long queens=pieces(attacker, ChessPiece.PieceType.QUEEN);
+        long occupied=occupancy();
+        long straight=pieces(attacker, ChessPiece.PieceType.ROOK) | queens;
+        if (straight != 0 && (Bitboards.rookAttacks(square, occupied) & straight) != 0) {
+            return true;
+        }
+        long diagonal=pieces(attacker, ChessPiece.PieceType.BISHOP) | queens;
+        return diagonal != 0 && (Bitboards.bishopAttacks(square, occupied) & diagonal) != 0;
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
         squares = new ChessPiece[8][8];
+        bitboards = new long[14];
+        zobristKey = 0L;
 
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
         for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2, i), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
         }
 
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
         for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, i), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
     }
 
+    private long[] bitboards() {
+        if (bitboards == null) {
+            bitboards=new long[14];
+            zobristKey=0L;
+            for (int row=0; row < 8; row++) {
+                for (int col=0; col < 8; col++) {
+                    ChessPiece piece=squares[row][col];
+                    if (piece != null) {
+                        long bit=1L << (row * 8 + col);
+                        bitboards[index(piece)]|=bit;
+                        bitboards[12 + Bitboards.colorIndex(piece.getTeamColor())]|=bit;
+                        zobristKey^=Zobrist.pieceSquare(index(piece), row * 8 + col);
+                    }
+                }
+            }
+        }
+        return bitboards;
+    }
+
+    private static int index(ChessPiece piece) {
+        return Bitboards.colorIndex(piece.getTeamColor()) * 6 + piece.getPieceType().ordinal();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -76,11 +192,13 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that=(ChessBoard) o;
-        return Arrays.deepEquals(squares, that.squares);
+        // The key rejects almost every mismatch; the piece bitboards settle the rare collision.
+        return getZobristKey() == that.getZobristKey() && Arrays.equals(bitboards(), that.bitboards());
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        long key=getZobristKey();
+        return (int) (key ^ (key >>> 32));
     }
 }
\ No newline at end of file
@@ -1,11 +1,24 @@
 package chess;
 
+import chess.rules.Bitboards;
+
 import java.util.Collection;
 import java.util.ArrayList;
-
+import java.util.Objects;
+
+/**
+ * A game of chess: the board, whose turn it is and how many moves have been made.
+ * <p>
+ * Not thread-safe, not even for queries. Move validation plays each candidate move on the live
+ * board and puts it back, and the game status is memoized without synchronization, so a game
+ * shared between threads must be confined to one of them or copied for each.
+ */
 public class ChessGame {
     private TeamColor teamTurn;
     private ChessBoard board;
+    private int ply;
+    // Per-team status, indexed by Bitboards.colorIndex; cleared on every change of board or turn.
+    private transient GameStatus[] statusCache;
 
     public ChessGame() {
         this.board = new ChessBoard();
@@ -19,6 +32,18 @@ public class ChessGame {
 
     public void setTeamTurn(TeamColor team) {
         this.teamTurn = team;
+        this.statusCache = null;
+    }
+
+    /**
+     * @return number of moves made with makeMove since the game started
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
     }
 
     public enum TeamColor {
@@ -27,6 +52,24 @@ public class ChessGame {
         RESIGNED
     }
 
+    /**
+     * Check, legal-move count, checkmate and stalemate for one team, evaluated together
+     */
+    public record GameStatus(TeamColor team, boolean inCheck, int legalMoveCount) {
+        public boolean isCheckmate() {
+            return inCheck && legalMoveCount == 0;
+        }
+
+        public boolean isStalemate() {
+            return !inCheck && legalMoveCount == 0;
+        }
+    }
+
+    /**
+     * Every move of the piece at startPosition that does not leave its own king in check. Each
+     * candidate is briefly played on this game's board, so this must not run while another
+     * thread reads or changes the same game.
+     */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         ChessPiece piece = board.getPiece(startPosition);
         if (piece == null) {
@@ -37,14 +80,7 @@ public class ChessGame {
         Collection<ChessMove> validMoves = new ArrayList<>();
 
         for (ChessMove move : possibleMoves) {
-            ChessBoard tempBoard = cloneBoard(board);
-            tempBoard.addPiece(move.getEndPosition(), piece);
-            tempBoard.addPiece(move.getStartPosition(), null);
-
-            ChessGame tempGame = new ChessGame();
-            tempGame.setBoard(tempBoard);
-
-            if (!tempGame.isInCheck(piece.getTeamColor())) {
+            if (!leavesKingInCheck(piece, move)) {
                 validMoves.add(move);
             }
         }
@@ -68,71 +104,62 @@ public class ChessGame {
         board.addPiece(move.getStartPosition(), null);
 
         if (move.getPromotionPiece() != null) {
-            board.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
+            board.addPiece(move.getEndPosition(), ChessPiece.of(piece.getTeamColor(), move.getPromotionPiece()));
         }
 
+        ply++;
         setTeamTurn(teamTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE);
     }
 
+    /**
+     * Reads the board without changing it, but sees half-played moves if validMoves runs on the
+     * same game in another thread.
+     */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = findKingPosition(teamColor);
-        if (kingPosition == null) {
+        int kingSquare = (teamColor == TeamColor.RESIGNED) ? -1 : board.kingSquare(teamColor);
+        if (kingSquare < 0) {
             return false;
         }
 
         TeamColor opposingColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        return isPositionThreatened(kingPosition, opposingColor);
-    }
-
-    private ChessPosition findKingPosition(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING &&
-                        piece.getTeamColor() == teamColor) {
-                    return position;
-                }
-            }
-        }
-        return null;
+        return board.isSquareAttacked(kingSquare, opposingColor);
     }
 
-    private boolean isPositionThreatened(ChessPosition position, TeamColor byTeam) {
-        return getAllTeamMoves(byTeam).stream()
-                .anyMatch(move -> move.getEndPosition().equals(position));
+    /**
+     * @return the status of the team whose turn it is
+     */
+    public GameStatus getGameStatus() {
+        return getGameStatus(teamTurn);
     }
 
-    private Collection<ChessMove> getAllTeamMoves(TeamColor team) {
-        Collection<ChessMove> allMoves = new ArrayList<>();
-
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition currentPos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(currentPos);
-
-                if (piece != null && piece.getTeamColor() == team) {
-                    allMoves.addAll(piece.pieceMoves(board, currentPos));
-                }
-            }
+    /**
+     * Evaluates check and every legal move for a team in one pass. The result is
+     * memoized until the next makeMove, setBoard or setTeamTurn. Like validMoves, it
+     * temporarily changes the board and is not safe to call on a game other threads use.
+     */
+    public GameStatus getGameStatus(TeamColor teamColor) {
+        if (teamColor == TeamColor.RESIGNED) {
+            return new GameStatus(teamColor, false, 0);
         }
-
-        return allMoves;
+        if (statusCache == null) {
+            statusCache = new GameStatus[2];
+        }
+        int index = Bitboards.colorIndex(teamColor);
+        if (statusCache[index] == null) {
+            statusCache[index] = new GameStatus(teamColor, isInCheck(teamColor), countLegalMoves(teamColor));
+        }
+        return statusCache[index];
     }
 
-    private boolean hasValidMoves(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    if (!validMoves(position).isEmpty()) {
-                        return true;
-                    }
-                }
-            }
+    private int countLegalMoves(TeamColor teamColor) {
+        int count = 0;
+        long pieces = board.occupancy(teamColor);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            count += validMoves(ChessPosition.of(Bitboards.row(square), Bitboards.column(square))).size();
+            pieces &= pieces - 1;
         }
-        return false;
+        return count;
     }
 
     public void isResigned(){
@@ -141,34 +168,68 @@ public class ChessGame {
 
     }
 
+    /**
+     * Runs move generation through validMoves unless the status is already memoized, with the
+     * same threading limits.
+     */
     public boolean isInCheckmate(TeamColor teamColor) {
-        return isInCheck(teamColor) && !hasValidMoves(teamColor);
+        return getGameStatus(teamColor).isCheckmate();
     }
 
     public boolean isInStalemate(TeamColor teamColor) {
-        return !isInCheck(teamColor) && !hasValidMoves(teamColor);
+        return getGameStatus(teamColor).isStalemate();
     }
 
     public void setBoard(ChessBoard board) {
         this.board = board;
+        this.statusCache = null;
     }
 
     public ChessBoard getBoard() {
         return board;
     }
 
-    private ChessBoard cloneBoard(ChessBoard originalBoard) {
-        ChessBoard clonedBoard = new ChessBoard();
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece boardPiece = originalBoard.getPiece(position);
-                if (boardPiece != null) {
-                    clonedBoard.addPiece(position,
-                            new ChessPiece(boardPiece.getTeamColor(), boardPiece.getPieceType()));
-                }
-            }
+    /**
+     * @return 64-bit Zobrist key of the board and side to move
+     */
+    public long getZobristKey() {
+        return board.getZobristKey() ^ Zobrist.side(teamTurn);
+    }
+
+    /**
+     * Plays the move on the live board, tests the mover's king for check, then
+     * puts the moving and captured pieces back.
+     */
+    private boolean leavesKingInCheck(ChessPiece piece, ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        ChessPiece captured = board.getPiece(end);
+
+        board.addPiece(end, piece);
+        board.addPiece(start, null);
+        try {
+            return isInCheck(piece.getTeamColor());
+        } finally {
+            board.addPiece(start, piece);
+            board.addPiece(end, captured);
         }
-        return clonedBoard;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ChessGame that = (ChessGame) o;
+        return teamTurn == that.teamTurn && Objects.equals(board, that.board);
+    }
+
+    @Override
+    public int hashCode() {
+        long key = getZobristKey();
+        return (int) (key ^ (key >>> 32));
     }
 }
@@ -1,5 +1,12 @@
 package chess;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -8,8 +15,31 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessMove.GsonAdapter.class)
 public class ChessMove {
 
+  // Shared instances for every non-promoting move and every queen, bishop, knight or rook
+  // promotion between on-board squares, indexed by from square, to square and promotion slot.
+  // The slot is 0 for no promotion and otherwise the piece type's ordinal, which is 1 to 4 for those types.
+  private static final int PROMOTIONS=5;
+  private static final ChessMove[] CANONICAL=new ChessMove[64 * 64 * PROMOTIONS];
+
+  static {
+    ChessPiece.PieceType[] promotions={ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK};
+    for (int from=0; from < 64; from++) {
+      for (int to=0; to < 64; to++) {
+        ChessPosition start=ChessPosition.of(from / 8 + 1, from % 8 + 1);
+        ChessPosition end=ChessPosition.of(to / 8 + 1, to % 8 + 1);
+        int base=(from * 64 + to) * PROMOTIONS;
+        CANONICAL[base]=new ChessMove(start, end, null);
+        for (ChessPiece.PieceType type : promotions) {
+          CANONICAL[base + type.ordinal()]=new ChessMove(start, end, type);
+        }
+      }
+    }
+  }
+
   private final ChessPosition startPosition;
   private final ChessPosition endPosition;
   private final ChessPiece.PieceType promotionPiece;
@@ -21,6 +51,26 @@ public class ChessMove {
     this.promotionPiece=promotionPiece;
   }
 
+  /**
+   * @return the shared instance for a move between on-board squares, or a new move otherwise
+   */
+  public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                             ChessPiece.PieceType promotionPiece) {
+    int promotion=promotionPiece == null ? 0 : promotionPiece.ordinal();
+    if (!onBoard(startPosition) || !onBoard(endPosition) || promotion >= PROMOTIONS
+            || promotionPiece == ChessPiece.PieceType.KING) {
+      return new ChessMove(startPosition, endPosition, promotionPiece);
+    }
+    int from=(startPosition.getRow() - 1) * 8 + (startPosition.getColumn() - 1);
+    int to=(endPosition.getRow() - 1) * 8 + (endPosition.getColumn() - 1);
+    return CANONICAL[(from * 64 + to) * PROMOTIONS + promotion];
+  }
+
+  private static boolean onBoard(ChessPosition position) {
+    return position != null && position.getRow() >= 1 && position.getRow() <= 8
+            && position.getColumn() >= 1 && position.getColumn() <= 8;
+  }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -61,4 +111,51 @@ public class ChessMove {
   public int hashCode() {
     return Objects.hash(startPosition, endPosition, promotionPiece);
   }
+
+  /**
+   * Reads and writes the same JSON as Gson's reflective form, but resolves to shared instances.
+   */
+  static class GsonAdapter extends TypeAdapter<ChessMove> {
+    private final ChessPosition.GsonAdapter positions=new ChessPosition.GsonAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessMove move) throws IOException {
+      out.beginObject();
+      writePosition(out.name("startPosition"), move.startPosition);
+      writePosition(out.name("endPosition"), move.endPosition);
+      out.name("promotionPiece").value(move.promotionPiece == null ? null : move.promotionPiece.name());
+      out.endObject();
+    }
+
+    @Override
+    public ChessMove read(JsonReader in) throws IOException {
+      ChessPosition start=null;
+      ChessPosition end=null;
+      ChessPiece.PieceType promotion=null;
+      in.beginObject();
+      while (in.hasNext()) {
+        String name=in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "startPosition" -> start=positions.read(in);
+          case "endPosition" -> end=positions.read(in);
+          case "promotionPiece" -> promotion=ChessPiece.PieceType.valueOf(in.nextString());
+          default -> in.skipValue();
+        }
+      }
+      in.endObject();
+      return of(start, end, promotion);
+    }
+
+    private void writePosition(JsonWriter out, ChessPosition position) throws IOException {
+      if (position == null) {
+        out.nullValue();
+      } else {
+        positions.write(out, position);
+      }
+    }
+  }
 }
@@ -2,6 +2,12 @@ package chess;
 
 import org.junit.jupiter.params.shadow.com.univocity.parsers.common.beans.PropertyWrapper;
 
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.Objects;
 
 /**
@@ -10,8 +16,18 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPosition.GsonAdapter.class)
 public class ChessPosition {
 
+  // Shared instances for the 64 on-board squares, indexed as (row - 1) * 8 + (col - 1).
+  private static final ChessPosition[] CANONICAL=new ChessPosition[64];
+
+  static {
+    for (int i=0; i < 64; i++) {
+      CANONICAL[i]=new ChessPosition(i / 8 + 1, i % 8 + 1);
+    }
+  }
+
   private final int row;
   private final int col;
 
@@ -19,6 +35,16 @@ public class ChessPosition {
     this.row=row;
     this.col=col;
   }
+
+  /**
+   * @return the shared instance for an on-board square, or a new position for any other row and column
+   */
+  public static ChessPosition of(int row, int col) {
+    if (row < 1 || row > 8 || col < 1 || col > 8) {
+      return new ChessPosition(row, col);
+    }
+    return CANONICAL[(row - 1) * 8 + (col - 1)];
+  }
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -51,4 +77,33 @@ public class ChessPosition {
   public int hashCode() {
     return Objects.hash(row, col);
   }
+
+  /**
+   * Reads and writes the same JSON as Gson's reflective form, but resolves to shared instances.
+   */
+  static class GsonAdapter extends TypeAdapter<ChessPosition> {
+    @Override
+    public void write(JsonWriter out, ChessPosition position) throws IOException {
+      out.beginObject();
+      out.name("row").value(position.row);
+      out.name("col").value(position.col);
+      out.endObject();
+    }
+
+    @Override
+    public ChessPosition read(JsonReader in) throws IOException {
+      int row=0;
+      int col=0;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "row" -> row=in.nextInt();
+          case "col" -> col=in.nextInt();
+          default -> in.skipValue();
+        }
+      }
+      in.endObject();
+      return of(row, col);
+    }
+  }
 }
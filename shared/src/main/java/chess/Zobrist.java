@@ -0,0 +1,37 @@
+package chess;
+
+import java.util.Random;
+
+/**
+ * Random keys for incremental Zobrist hashing of positions.
+ * <p>
+ * The seed is fixed so every JVM (client and server) derives the same key for the same position.
+ */
+final class Zobrist {
+    private static final long[][] PIECE_SQUARE=new long[12][64];
+    private static final long[] SIDE=new long[ChessGame.TeamColor.values().length];
+
+    static {
+        Random random=new Random(240L);
+        for (long[] keys : PIECE_SQUARE) {
+            for (int square=0; square < 64; square++) {
+                keys[square]=random.nextLong();
+            }
+        }
+        // White to move contributes nothing, so a game's key equals its board's key on white's turn.
+        for (int i=1; i < SIDE.length; i++) {
+            SIDE[i]=random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    static long pieceSquare(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+
+    static long side(ChessGame.TeamColor teamTurn) {
+        return teamTurn == null ? 0L : SIDE[teamTurn.ordinal()];
+    }
+}
@@ -10,40 +10,8 @@ public class BishopMoveRules {
     Collection<ChessMove> validMoves = new ArrayList<>();
     ChessPiece bishop = board.getPiece(position);
 
-    int[][] directions = {
-            {1, 1},
-            {1, -1},
-            {-1, 1},
-            {-1, -1}
-    };
-
-    for (int[] direction : directions) {
-      int dRow = direction[0];
-      int dCol = direction[1];
-      int currentRow = position.getRow();
-      int currentCol = position.getColumn();
-
-      while (true) {
-        currentRow += dRow;
-        currentCol += dCol;
-
-        if (currentRow < 1 || currentRow > 8 || currentCol < 1 || currentCol > 8) {
-          break;
-        }
-
-        ChessPosition newPosition = new ChessPosition(currentRow, currentCol);
-        ChessPiece occupyingPiece = board.getPiece(newPosition);
-
-        if (occupyingPiece == null) {
-          validMoves.add(new ChessMove(position, newPosition, null));
-        } else if (occupyingPiece.getTeamColor() != bishop.getTeamColor()) {
-          validMoves.add(new ChessMove(position, newPosition, null));
-          break;
-        } else {
-          break;
-        }
-      }
-    }
+    long targets = Bitboards.bishopAttacks(Bitboards.square(position), board.occupancy()) & ~board.occupancy(bishop.getTeamColor());
+    Bitboards.addMoves(validMoves, position, targets);
 
     return validMoves;
   }
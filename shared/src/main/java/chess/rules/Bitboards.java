@@ -0,0 +1,120 @@
+package chess.rules;
+
+import chess.*;
+import java.util.Collection;
+
+/**
+ * Precomputed attack tables for the 64-bit board representation.
+ * <p>
+ * Squares are indexed as (row - 1) * 8 + (column - 1), so bit 0 is a1 and bit 63 is h8.
+ */
+public final class Bitboards {
+
+  public static final long[] KNIGHT_ATTACKS = new long[64];
+  public static final long[] KING_ATTACKS = new long[64];
+  public static final long[][] PAWN_ATTACKS = new long[2][64];
+
+  // North, north-east, east and north-west increase the square index; the rest decrease it.
+  private static final int[][] DIRECTIONS = {
+          {1, 0}, {1, 1}, {0, 1}, {1, -1},
+          {-1, 0}, {-1, -1}, {0, -1}, {-1, 1}
+  };
+  private static final int[] ROOK_DIRECTIONS = {0, 2, 4, 6};
+  private static final int[] BISHOP_DIRECTIONS = {1, 3, 5, 7};
+  private static final long[][] RAYS = new long[8][64];
+
+  static {
+    int[][] knightJumps = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+
+    for (int square = 0; square < 64; square++) {
+      int row = row(square);
+      int col = column(square);
+
+      for (int[] jump : knightJumps) {
+        KNIGHT_ATTACKS[square] |= bit(row + jump[0], col + jump[1]);
+      }
+      for (int[] direction : DIRECTIONS) {
+        KING_ATTACKS[square] |= bit(row + direction[0], col + direction[1]);
+      }
+      PAWN_ATTACKS[0][square] = bit(row + 1, col - 1) | bit(row + 1, col + 1);
+      PAWN_ATTACKS[1][square] = bit(row - 1, col - 1) | bit(row - 1, col + 1);
+
+      for (int d = 0; d < DIRECTIONS.length; d++) {
+        int r = row + DIRECTIONS[d][0];
+        int c = col + DIRECTIONS[d][1];
+        while (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+          RAYS[d][square] |= bit(r, c);
+          r += DIRECTIONS[d][0];
+          c += DIRECTIONS[d][1];
+        }
+      }
+    }
+  }
+
+  private Bitboards() {
+  }
+
+  public static int square(int row, int col) {
+    return (row - 1) * 8 + (col - 1);
+  }
+
+  public static int square(ChessPosition position) {
+    return square(position.getRow(), position.getColumn());
+  }
+
+  public static int row(int square) {
+    return (square >> 3) + 1;
+  }
+
+  public static int column(int square) {
+    return (square & 7) + 1;
+  }
+
+  public static int colorIndex(ChessGame.TeamColor color) {
+    return color == ChessGame.TeamColor.WHITE ? 0 : 1;
+  }
+
+  public static long rookAttacks(int square, long occupied) {
+    return slidingAttacks(square, occupied, ROOK_DIRECTIONS);
+  }
+
+  public static long bishopAttacks(int square, long occupied) {
+    return slidingAttacks(square, occupied, BISHOP_DIRECTIONS);
+  }
+
+  public static long queenAttacks(int square, long occupied) {
+    return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+  }
+
+  /**
+   * Adds a non-promoting move from the given position to every square set in targets
+   */
+  public static void addMoves(Collection<ChessMove> moves, ChessPosition from, long targets) {
+    while (targets != 0) {
+      int to = Long.numberOfTrailingZeros(targets);
+      moves.add(ChessMove.of(from, ChessPosition.of(row(to), column(to)), null));
+      targets &= targets - 1;
+    }
+  }
+
+  private static long slidingAttacks(int square, long occupied, int[] directions) {
+    long attacks = 0L;
+    for (int d : directions) {
+      long ray = RAYS[d][square];
+      long blockers = ray & occupied;
+      if (blockers != 0) {
+        int blocker = d < 4 ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+        ray ^= RAYS[d][blocker];
+      }
+      attacks |= ray;
+    }
+    return attacks;
+  }
+
+  private static long bit(int row, int col) {
+    if (row < 1 || row > 8 || col < 1 || col > 8) {
+      return 0L;
+    }
+    return 1L << square(row, col);
+  }
+}
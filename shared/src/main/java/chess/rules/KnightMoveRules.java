@@ -10,27 +10,9 @@ public class KnightMoveRules {
     Collection<ChessMove> validMoves = new ArrayList<>();
     ChessPiece knight = board.getPiece(position);
 
-    int[][] knightMoves = {
-            {2, 1}, {2, -1},
-            {-2, 1}, {-2, -1},
-            {1, 2}, {1, -2},
-            {-1, 2}, {-1, -2}
-    };
-
-    for (int[] move : knightMoves) {
-      int newRow = position.getRow() + move[0];
-      int newCol = position.getColumn() + move[1];
-
-      if (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
-        ChessPosition newPosition = new ChessPosition(newRow, newCol);
-        ChessPiece occupyingPiece = board.getPiece(newPosition);
-
-        if (occupyingPiece == null || occupyingPiece.getTeamColor() != knight.getTeamColor()) {
-          validMoves.add(new ChessMove(position, newPosition, null));
-        }
-      }
-    }
+    long targets = Bitboards.KNIGHT_ATTACKS[Bitboards.square(position)] & ~board.occupancy(knight.getTeamColor());
+    Bitboards.addMoves(validMoves, position, targets);
 
     return validMoves;
   }
-}
\ No newline at end of file
+}
@@ -10,38 +10,9 @@ public class RookMoveRules {
     Collection<ChessMove> validMoves = new ArrayList<>();
     ChessPiece rook = board.getPiece(position);
 
-    int[][] directions = {
-            {1, 0},
-            {-1, 0},
-            {0, 1},
-            {0, -1}
-    };
+    long targets = Bitboards.rookAttacks(Bitboards.square(position), board.occupancy()) & ~board.occupancy(rook.getTeamColor());
+    Bitboards.addMoves(validMoves, position, targets);
 
-    for (int[] direction : directions) {
-      int dRow = direction[0];
-      int dCol = direction[1];
-      int currentRow = position.getRow();
-      int currentCol = position.getColumn();
-
-      while (true) {
-        currentRow += dRow;
-        currentCol += dCol;
-
-        if (currentRow < 1 || currentRow > 8 || currentCol < 1 || currentCol > 8) {
-          break;
-        }
-        ChessPosition newPosition = new ChessPosition(currentRow, currentCol);
-        ChessPiece occupyingPiece = board.getPiece(newPosition);
-        if (occupyingPiece == null) {
-          validMoves.add(new ChessMove(position, newPosition, null));
-        } else if (occupyingPiece.getTeamColor() != rook.getTeamColor()) {
-          validMoves.add(new ChessMove(position, newPosition, null));
-          break;
-        } else {
-          break;
-        }
-      }
-    }
     return validMoves;
   }
 }
@@ -1,3 +1,17 @@
 package model;
 import chess.ChessGame;
-public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {}
+
+/**
+ * A stored game. The version counts the updates made to it, so a writer can tell whether the
+ * game changed since it was read.
+ */
+public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game,
+                       int version) {
+  public GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+    this(gameID, whiteUsername, blackUsername, gameName, game, 0);
+  }
+
+  public GameData withVersion(int version) {
+    return new GameData(gameID, whiteUsername, blackUsername, gameName, game, version);
+  }
+}
@@ -0,0 +1,33 @@
+package model;
+
+import chess.ChessGame;
+
+/**
+ * What the lobby shows for a game: its name, its players and whether it is over, without the board.
+ */
+public record GameSummary(int gameID, String gameName, String whiteUsername, String blackUsername, Status status) {
+
+  public enum Status {
+    ACTIVE,
+    FINISHED
+  }
+
+  public static GameSummary of(GameData game) {
+    return new GameSummary(game.gameID(), game.gameName(), game.whiteUsername(), game.blackUsername(),
+            statusOf(game.game()));
+  }
+
+  /**
+   * A game is finished once someone resigned or the side to move has no legal move.
+   */
+  public static Status statusOf(ChessGame game) {
+    if (game.getTeamTurn() == ChessGame.TeamColor.RESIGNED || game.getGameStatus().legalMoveCount() == 0) {
+      return Status.FINISHED;
+    }
+    return Status.ACTIVE;
+  }
+
+  public boolean hasOpenSeat() {
+    return whiteUsername == null || blackUsername == null;
+  }
+}
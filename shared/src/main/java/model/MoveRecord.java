@@ -0,0 +1,17 @@
+package model;
+import chess.ChessGame;
+import chess.ChessMove;
+
+/**
+ * One ply of a game's history: the move, the ply number it produced, the Zobrist key of the resulting position
+ * and whether it left the side to move without a legal move, ending the game.
+ */
+public record MoveRecord(int ply, ChessMove move, long positionHash, boolean finished) {
+  /**
+   * Built right after the move is made. The game memoizes its status, so the caller's own
+   * checkmate and check tests on the same game reuse the move generation done here.
+   */
+  public static MoveRecord after(ChessGame game, ChessMove move) {
+    return new MoveRecord(game.getPly(), move, game.getZobristKey(), game.getGameStatus().legalMoveCount() == 0);
+  }
+}
@@ -0,0 +1,10 @@
+package websocket.commands;
+
+/**
+ * Asks the server to resend the full game to this session only.
+ */
+public class Sync extends UserGameCommand {
+  public Sync(String authToken, Integer gameID) {
+    super(CommandType.SYNC, authToken, gameID);
+  }
+}
@@ -0,0 +1,55 @@
+package websocket.messages;
+
+import chess.ChessMove;
+
+import java.util.Objects;
+
+/**
+ * A move applied to the game, sent in place of a full LOAD_GAME to clients that asked for deltas.
+ * The sequence is the game's ply after the move and the hash its resulting Zobrist key, so the
+ * client can tell when its copy of the game has diverged.
+ */
+public class MoveApplied extends ServerMessage {
+  private final ChessMove move;
+  private final long positionHash;
+  private final int sequence;
+
+  public MoveApplied(ChessMove move, long positionHash, int sequence) {
+    super(ServerMessageType.MOVE_APPLIED);
+    this.move = move;
+    this.positionHash = positionHash;
+    this.sequence = sequence;
+  }
+
+  public ChessMove getMove() {
+    return move;
+  }
+
+  public long getPositionHash() {
+    return positionHash;
+  }
+
+  public int getSequence() {
+    return sequence;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    MoveApplied that = (MoveApplied) o;
+    return positionHash == that.positionHash && sequence == that.sequence && Objects.equals(move, that.move);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(super.hashCode(), move, positionHash, sequence);
+  }
+}